@@ -19,7 +19,17 @@ else
     echo " => No certificates found, skipping"
 fi
 
-java -Duser.timezone=Europe/Zurich \
+# Startup optimizations of the image built with Dockerfile-cds
+STARTUP_OPTS=()
+CDS_ARCHIVE="${CDS_ARCHIVE:-$(dirname "$1")/app.jsa}"
+if [ -f "$CDS_ARCHIVE" ]; then
+    echo "Using class data sharing archive $CDS_ARCHIVE"
+    # Falls back to loading the classes normally if the archive does not match the JVM or class path
+    STARTUP_OPTS+=("-XX:SharedArchiveFile=$CDS_ARCHIVE" "-Xshare:auto")
+fi
+
+java "${STARTUP_OPTS[@]}" \
+-Duser.timezone=Europe/Zurich \
 -Dspring.config.location=classpath:bootstrap.yml,classpath:application.yml,optional:file:/vault/secrets/database-credentials.yml \
 -Dfile.encoding=UTF-8 \
 -Dspring.profiles.active=${MY_SPRING_PROFILES} \
@@ -0,0 +1,17 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+-- Table of the proof replay cache used with PROOF_REPLAY_CACHE_TYPE=database.
+-- The issuer agent management is owner of the schema, so this has to be added as a migration there.
+-- The issuer agent only needs SELECT, INSERT and DELETE on it.
+CREATE TABLE proof_replay_cache
+(
+    replay_key VARCHAR(64) NOT NULL,
+    expires_at BIGINT      NOT NULL,
+    PRIMARY KEY (replay_key)
+);
+
+CREATE INDEX proof_replay_cache_expires_at_idx ON proof_replay_cache (expires_at);
@@ -0,0 +1,55 @@
+#!/bin/bash
+
+#
+# SPDX-FileCopyrightText: 2025 Swiss Confederation
+#
+# SPDX-License-Identifier: MIT
+#
+
+# Measures the time from launching the JVM until the readiness probe reports UP.
+# The application runs with the self-contained cds-training profile of scripts/cds, so no database or HSM is needed.
+#
+# Usage: scripts/startup-benchmark.sh <jar> [runs] [java options...]
+#   Plain jar:       scripts/startup-benchmark.sh target/swiyu-issuer-oid4vci-service-1.1.5-SNAPSHOT.jar 5
+#   With CDS:        scripts/startup-benchmark.sh application/app.jar 5 -XX:SharedArchiveFile=application/app.jsa
+
+set -u
+
+JAR=$1
+RUNS=${2:-5}
+shift $(( $# > 1 ? 2 : 1 ))
+PORT=${BENCHMARK_PORT:-18080}
+TIMEOUT_SECONDS=${BENCHMARK_TIMEOUT_SECONDS:-120}
+LOG_FILE=$(mktemp)
+CONFIG_DIR=$(cd "$(dirname "$0")/cds" && pwd)
+
+TOTAL=0
+MIN=
+for RUN in $(seq 1 "$RUNS"); do
+    START=$(date +%s%N)
+    java "$@" -Dspring.profiles.active=cds-training -Dserver.port="$PORT" -jar "$JAR" --spring.config.additional-location="file:$CONFIG_DIR/" > "$LOG_FILE" 2>&1 &
+    PID=$!
+    READY=
+    while [ $(( ($(date +%s%N) - START) / 1000000000 )) -lt "$TIMEOUT_SECONDS" ] && kill -0 "$PID" 2> /dev/null; do
+        if curl -fs "http://localhost:$PORT/actuator/health/readiness" | grep -q '"UP"'; then
+            READY=$(( ($(date +%s%N) - START) / 1000000 ))
+            break
+        fi
+        sleep 0.05
+    done
+    kill "$PID" 2> /dev/null
+    wait "$PID" 2> /dev/null
+    if [ -z "$READY" ]; then
+        echo "Run $RUN: not ready within $TIMEOUT_SECONDS s, application log:"
+        tail -50 "$LOG_FILE"
+        exit 1
+    fi
+    echo "Run $RUN: ready after $READY ms"
+    TOTAL=$(( TOTAL + READY ))
+    if [ -z "$MIN" ] || [ "$READY" -lt "$MIN" ]; then
+        MIN=$READY
+    fi
+done
+rm -f "$LOG_FILE"
+
+echo "Time to ready over $RUNS runs: average $(( TOTAL / RUNS )) ms, best $MIN ms"
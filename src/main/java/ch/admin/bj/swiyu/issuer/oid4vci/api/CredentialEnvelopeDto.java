@@ -10,13 +10,30 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 /**
- * Helper DTO providing the http content type alongside the credential
+ * Helper DTO providing the http content type alongside the credential.
+ * The credential response is kept as the bytes to be sent, so it can be written to the response without conversion.
  */
-@Getter
 @AllArgsConstructor
 @Schema(name = "CredentialEnvelope")
 public class CredentialEnvelopeDto {
+    @Getter
     private String contentType;
-    private String oid4vciCredentialJson;
+    private byte[] oid4vciCredential;
+
+    public String getOid4vciCredentialJson() {
+        return new String(oid4vciCredential, StandardCharsets.UTF_8);
+    }
+
+    public int getContentLength() {
+        return oid4vciCredential.length;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(oid4vciCredential);
+    }
 }
@@ -0,0 +1,21 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Response of the <a href="https://openid.net/specs/openid-4-verifiable-credential-issuance-1_0.html#name-nonce-endpoint">OID4VCI Nonce Endpoint</a>
+ */
+@Schema(name = "NonceResponse")
+public record NonceResponseDto(
+        @NotNull
+        @JsonProperty("c_nonce")
+        String cNonce) {
+}
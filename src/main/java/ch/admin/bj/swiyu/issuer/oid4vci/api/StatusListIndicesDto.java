@@ -0,0 +1,26 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.api;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Indices of a status list having a status, as exposed by the statuslists actuator endpoint
+ *
+ * @param indices the indices in ascending order
+ * @param nextFrom index to continue the search at, null if there are no further indices
+ */
+@Schema(name = "StatusListIndices")
+public record StatusListIndicesDto(
+        UUID id,
+        int status,
+        List<Integer> indices,
+        Integer nextFrom) {
+}
@@ -0,0 +1,32 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.api;
+
+import java.util.Map;
+import java.util.UUID;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Status counts of a status list, as exposed by the statuslists actuator endpoint
+ *
+ * @param nextFreeIndex   number of status list entries assigned to credentials so far
+ * @param revocationRatio share of the assigned status list entries which are revoked
+ * @param histogram       number of entries per status value, omitting values no entry has
+ */
+@Schema(name = "StatusListStatistics")
+public record StatusListStatisticsDto(
+        UUID id,
+        String uri,
+        int bits,
+        int maxLength,
+        int nextFreeIndex,
+        long revoked,
+        long suspended,
+        double revocationRatio,
+        Map<Integer, Long> histogram) {
+}
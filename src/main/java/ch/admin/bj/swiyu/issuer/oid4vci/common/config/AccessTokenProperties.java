@@ -0,0 +1,39 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the access tokens issued by the token endpoint
+ */
+@ConfigurationProperties(prefix = "application.access-token")
+@Valid
+@Getter
+@Setter
+public class AccessTokenProperties {
+
+    /**
+     * If true, access tokens carry the offer id and their expiration, protected by an HMAC.
+     * Tampered and expired tokens are then rejected without a database lookup.
+     * Plain UUID access tokens are accepted in both cases.
+     */
+    private boolean signed = false;
+
+    /**
+     * Base64 encoded HMAC keys. The first key is used to sign access tokens, all keys are accepted when verifying them.
+     * To rotate, add the new key in front and remove the old one once the token lifetime has passed.
+     * If empty, a random key is generated on startup, in which case signed tokens are only valid for the instance issuing them.
+     */
+    private List<String> hmacKeys = new ArrayList<>();
+}
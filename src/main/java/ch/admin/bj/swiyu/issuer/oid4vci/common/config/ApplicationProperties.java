@@ -38,12 +38,29 @@ public class ApplicationProperties {
     @NotNull
     private String issuerId;
 
+    /**
+     * Location of the OpenID configuration json, eg. file:///data/example_openid.json
+     */
+    @NotNull
+    private String openidFile;
+
+    /**
+     * Location of the OID4VCI issuer metadata json
+     */
+    @NotNull
+    private String metadataFile;
+
     @NotNull
     private long tokenTTL;
 
     @NotNull
     private int acceptableProofTimeWindowSeconds;
 
+    /**
+     * Maximum size in bytes of request bodies, larger requests are rejected before they are parsed
+     */
+    private int maxRequestBodySize = 65536;
+
     private String dataIntegrityJwks;
 
     public JWKSet getDataIntegrityKeySet() throws ParseException {
@@ -0,0 +1,139 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Signer whose key is loaded in the background, so logging into an HSM does not block the startup.
+ * <p>
+ * Signing waits for the key to be loaded. The instance only reports to be ready once the key is loaded,
+ * see the signer health indicator, so requests are normally not held up.
+ * </p>
+ */
+@Slf4j
+public final class DeferredSigner implements JWSSigner {
+
+    /**
+     * Maximum time a signature waits for the key to be loaded
+     */
+    private static final long SIGN_TIMEOUT_SECONDS = 30;
+
+    private final String keyManagementMethod;
+    private final CompletableFuture<JWSSigner> signer;
+
+    private DeferredSigner(String keyManagementMethod, CompletableFuture<JWSSigner> signer) {
+        this.keyManagementMethod = keyManagementMethod;
+        this.signer = signer;
+    }
+
+    /**
+     * @param keyManagementMethod key management method, for logs and the health indicator
+     * @param signer              signer which is already loaded
+     */
+    public static DeferredSigner of(String keyManagementMethod, JWSSigner signer) {
+        return new DeferredSigner(keyManagementMethod, CompletableFuture.completedFuture(signer));
+    }
+
+    /**
+     * @param keyManagementMethod key management method, for logs and the health indicator
+     * @param loader              loads the signer, called on a thread of its own
+     */
+    public static DeferredSigner load(String keyManagementMethod, Callable<JWSSigner> loader) {
+        var signer = new CompletableFuture<JWSSigner>();
+        var thread = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                signer.complete(loader.call());
+                log.info("Loaded signing key with key management method {} in {} ms", keyManagementMethod, (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                log.error("Signing key with key management method {} could not be loaded", keyManagementMethod, e);
+                signer.completeExceptionally(e);
+            }
+        }, "signer-loader");
+        thread.setDaemon(true);
+        thread.start();
+        return new DeferredSigner(keyManagementMethod, signer);
+    }
+
+    public String getKeyManagementMethod() {
+        return keyManagementMethod;
+    }
+
+    /**
+     * @return true once the key is loaded and can be used for signing
+     */
+    public boolean isReady() {
+        return signer.isDone() && !signer.isCompletedExceptionally();
+    }
+
+    /**
+     * @return the reason the key could not be loaded, empty if it is loaded or still loading
+     */
+    public Optional<Throwable> getFailure() {
+        if (!signer.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        try {
+            signer.join();
+            return Optional.empty();
+        } catch (CompletionException e) {
+            return Optional.ofNullable(e.getCause());
+        }
+    }
+
+    @Override
+    public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+        return awaitSigner().sign(header, signingInput);
+    }
+
+    /**
+     * All signers of the key management methods are ECDSA signers
+     */
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return isReady() ? signer.join().supportedJWSAlgorithms() : ECDSASigner.SUPPORTED_ALGORITHMS;
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        try {
+            return awaitSigner().getJCAContext();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private JWSSigner awaitSigner() throws JOSEException {
+        try {
+            return signer.get(SIGN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new JOSEException(String.format("Signing key with key management method %s could not be loaded", keyManagementMethod), e.getCause());
+        } catch (TimeoutException e) {
+            throw new JOSEException(String.format("Signing key with key management method %s is not loaded yet", keyManagementMethod));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JOSEException("Interrupted while waiting for the signing key");
+        }
+    }
+}
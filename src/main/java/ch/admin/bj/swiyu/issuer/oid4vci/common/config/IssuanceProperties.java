@@ -0,0 +1,43 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning of the credential issuance
+ */
+@ConfigurationProperties(prefix = "application.issuance")
+@Valid
+@Getter
+@Setter
+public class IssuanceProperties {
+
+    /**
+     * Number of selectively disclosable claims from which on the disclosures of a credential are created in parallel.
+     * 0 disables the parallel creation.
+     */
+    @Min(0)
+    private int parallelDisclosureThreshold = 100;
+
+    /**
+     * Maximum number of threads used to create disclosures in parallel, shared by all requests.
+     */
+    @Min(1)
+    private int parallelDisclosureParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of disclosure salts generated ahead of time by a background thread.
+     * 0 disables the pool, salts are then generated when needed.
+     */
+    @Min(0)
+    private int saltPoolSize = 0;
+}
@@ -0,0 +1,32 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import java.time.Duration;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the reloading of the metadata files
+ */
+@ConfigurationProperties(prefix = "application.metadata-reload")
+@Valid
+@Getter
+@Setter
+public class MetadataReloadProperties {
+
+    /**
+     * How often the metadata files are checked for changes, eg. of a mounted ConfigMap.
+     * Zero disables the check, the metadata is then only reloaded when the configuration is refreshed.
+     */
+    @NotNull
+    private Duration interval = Duration.ofSeconds(30);
+}
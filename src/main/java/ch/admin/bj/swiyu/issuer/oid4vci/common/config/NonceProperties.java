@@ -0,0 +1,39 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the nonces issued by the nonce endpoint
+ */
+@ConfigurationProperties(prefix = "application.nonce")
+@Valid
+@Getter
+@Setter
+public class NonceProperties {
+
+    /**
+     * Base64 encoded HMAC keys. The first key is used to create nonces, all keys are accepted when validating them.
+     * To rotate, add the new key in front and remove the old one once the nonce lifetime has passed.
+     * If empty, a random key is generated on startup, in which case nonces are only valid for the instance issuing them.
+     */
+    private List<String> hmacKeys = new ArrayList<>();
+
+    /**
+     * Time in seconds for which an issued nonce is accepted in holder binding proofs
+     */
+    @Min(1)
+    private int lifetimeSeconds = 300;
+}
@@ -0,0 +1,40 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "application.proof-replay-cache")
+@Valid
+@Getter
+@Setter
+public class ProofReplayCacheProperties {
+
+    /**
+     * Backend remembering the used holder binding proofs.
+     * memory: kept per instance. database: shared by all instances using the issuer agent database.
+     */
+    @NotNull
+    private ProofReplayCacheType type = ProofReplayCacheType.MEMORY;
+
+    /**
+     * Maximum number of proofs remembered by the in memory cache, rounded up to the next power of two.
+     * When full the proofs closest to their expiration are evicted first.
+     */
+    @Min(1024)
+    private int maxEntries = 65536;
+
+    public enum ProofReplayCacheType {
+        MEMORY,
+        DATABASE
+    }
+}
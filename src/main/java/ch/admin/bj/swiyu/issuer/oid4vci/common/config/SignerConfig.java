@@ -32,11 +32,25 @@ public class SignerConfig {
     private final SdjwtProperties sdjwtProperties;
 
     /**
+     * The key of the HSM key management methods is loaded in the background, so the remaining beans are created
+     * while the HSM login and keystore loading are in progress.
+     *
      * @return A Signing Provider used to sign JWTs.
      * @throws Exception if the SigningProvider can not be created.
      */
     @Bean
-    public JWSSigner defaultSigner() throws Exception {
+    public DeferredSigner defaultSigner() throws Exception {
+        var keyManagementMethod = sdjwtProperties.getKeyManagementMethod();
+        return switch (keyManagementMethod) {
+            // A key in the configuration is parsed without any I/O, so configuration errors still fail the startup
+            case "key" -> DeferredSigner.of(keyManagementMethod, createSigner());
+            case "pkcs11", "securosys" -> DeferredSigner.load(keyManagementMethod, this::createSigner);
+            default ->
+                    throw new IllegalArgumentException(String.format("Key management method \"%s\" not supported", keyManagementMethod));
+        };
+    }
+
+    private JWSSigner createSigner() throws Exception {
         return switch (sdjwtProperties.getKeyManagementMethod()) {
             case "key" ->
                 // We are currently only supporting EC Keys
@@ -0,0 +1,40 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the cache of decoded status lists
+ */
+@ConfigurationProperties(prefix = "application.status-list-cache")
+@Valid
+@Getter
+@Setter
+public class StatusListCacheProperties {
+
+    /**
+     * Where decoded status lists are kept.
+     * memory: on the heap. mapped-file: in memory mapped files, so they use no heap and survive restarts.
+     */
+    @NotNull
+    private StatusListCacheType type = StatusListCacheType.MEMORY;
+
+    /**
+     * Directory of the memory mapped files. If empty, a directory in the temporary directory is used.
+     */
+    private String directory = "";
+
+    public enum StatusListCacheType {
+        MEMORY,
+        MAPPED_FILE
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the allocation of status list indices
+ */
+@ConfigurationProperties(prefix = "application.status-list-index")
+@Valid
+@Getter
+@Setter
+public class StatusListIndexProperties {
+
+    /**
+     * If true, the allocation service is created. It is not called by the issuance yet,
+     * as the indices are assigned by the issuer agent management.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of indices an instance reserves from a status list at once.
+     * Larger blocks mean fewer updates of the status list row, but more indices stay unused if an instance is killed.
+     */
+    @Min(1)
+    private int blockSize = 256;
+
+    /**
+     * If true, the indices of a reserved block are handed out in random order,
+     * so the position in the status list does not reveal the order of issuance.
+     * Unused indices of a shuffled block can only be returned if none of them was handed out.
+     */
+    private boolean shuffled = false;
+}
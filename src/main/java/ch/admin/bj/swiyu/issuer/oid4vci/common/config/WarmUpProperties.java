@@ -0,0 +1,44 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import java.time.Duration;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration of the synthetic issuances run on startup, before the instance reports to be ready
+ */
+@ConfigurationProperties(prefix = "application.warm-up")
+@Valid
+@Getter
+@Setter
+public class WarmUpProperties {
+
+    /**
+     * If true, credentials are issued in memory on startup, so the issuance code is compiled by the JIT
+     * before the instance receives traffic
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of synthetic issuances
+     */
+    @Min(1)
+    private int iterations = 2000;
+
+    /**
+     * Maximum duration of the warm-up, remaining iterations are skipped once it has passed
+     */
+    @NotNull
+    private Duration timeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,68 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.utils;
+
+import java.util.UUID;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class UuidUtils {
+
+    private static final int UUID_LENGTH = 36;
+
+    /**
+     * Parses a UUID in its canonical form (8-4-4-4-12 hex digits) without throwing on malformed input,
+     * as values from requests are often not UUIDs at all.
+     *
+     * @param value the value to parse, may be null
+     * @return the parsed UUID or null if the value is not a canonical UUID
+     */
+    public static UUID parseOrNull(String value) {
+        if (value == null || value.length() != UUID_LENGTH) {
+            return null;
+        }
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        int digits = 0;
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int digit = hexDigit(c);
+            if (digit < 0) {
+                return null;
+            }
+            if (digits++ < 16) {
+                mostSigBits = (mostSigBits << 4) | digit;
+            } else {
+                leastSigBits = (leastSigBits << 4) | digit;
+            }
+        }
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * @return the value of an ASCII hex digit or -1 if the character is not one
+     */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
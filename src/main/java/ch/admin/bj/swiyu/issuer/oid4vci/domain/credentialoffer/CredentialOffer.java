@@ -70,10 +70,13 @@ public class CredentialOffer {
         this.credentialStatus = CredentialStatus.ISSUED;
     }
 
-    public void markAsInProgress() {
+    /**
+     * @param newAccessToken access token to be used, if the offer does not have one yet
+     */
+    public void markAsInProgress(UUID newAccessToken) {
         this.credentialStatus = CredentialStatus.IN_PROGRESS;
         if (this.accessToken == null) {
-            this.accessToken = UUID.randomUUID();
+            this.accessToken = newAccessToken;
         }
     }
 
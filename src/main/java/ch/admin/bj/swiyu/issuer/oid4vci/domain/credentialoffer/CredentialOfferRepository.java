@@ -9,6 +9,8 @@ package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -22,4 +24,8 @@ public interface CredentialOfferRepository extends JpaRepository<CredentialOffer
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<CredentialOffer> findByAccessToken(UUID accessToken);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CredentialOffer c WHERE c.id = :id")
+    Optional<CredentialOffer> findByIdForUpdate(@Param("id") UUID id);
 }
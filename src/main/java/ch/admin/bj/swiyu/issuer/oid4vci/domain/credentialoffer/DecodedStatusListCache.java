@@ -0,0 +1,24 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
+
+import java.io.IOException;
+
+/**
+ * Keeps status lists in their decoded form, so reading them does not inflate the compressed data again.
+ * Entries are identified by the id of the status list and the {@link StatusListCodec#fingerprint(String) fingerprint}
+ * of its compressed data, so a changed status list is decoded again.
+ */
+public interface DecodedStatusListCache {
+
+    /**
+     * @param statusList the status list to get the bitstring of
+     * @return the decoded bitstring, which must not be changed as it is shared
+     * @throws IOException if the status list can not be decoded
+     */
+    StatusListBitstring getBitstring(StatusList statusList) throws IOException;
+}
@@ -44,6 +44,13 @@ public class StatusList {
     @OneToMany(mappedBy = "statusList")
     private Set<CredentialOfferStatus> offerStatusSet;
 
+    /**
+     * @return how many bits each entry of the token status list has
+     */
+    public int getBits() {
+        return ((Number) config.get("bits")).intValue();
+    }
+
     // only needed for tests
     public void incrementIndex() {
         this.nextFreeIndex++;
@@ -0,0 +1,369 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+import lombok.Getter;
+
+/**
+ * Bitstring of a token status list, operating on 64 bit words.
+ * <p>
+ * The words hold the bytes of the status list in little endian order, so bit {@code idx * bits} of the bitstring
+ * is bit {@code (idx * bits) % 64} of word {@code (idx * bits) / 64}. As the number of bits per entry divides 64,
+ * an entry never spans two words.
+ * </p>
+ * <p>
+ * The words are held in a {@link LongBuffer}, which is either backed by a heap array or by a memory mapped file
+ * containing the words in little endian order. A bitstring on a read only buffer can be queried but not changed.
+ * </p>
+ */
+public final class StatusListBitstring {
+
+    private static final int INITIAL_INDICES_LENGTH = 64;
+
+    @Getter
+    private final int bits;
+    /**
+     * Length of the status list in bytes, which does not have to be a multiple of the word size
+     */
+    @Getter
+    private final int byteLength;
+    /**
+     * Number of entries fitting into the byte length
+     */
+    @Getter
+    private final int capacity;
+    private final long entryMask;
+    /**
+     * Mask with the lowest bit of every entry in a word set
+     */
+    private final long lowestBitMask;
+    private final LongBuffer words;
+    private final int wordCount;
+
+    /**
+     * Creates a bitstring with all entries set to 0
+     *
+     * @param bits       how many bits each status list entry has, 1, 2, 4 or 8
+     * @param byteLength length of the status list in bytes
+     */
+    public StatusListBitstring(int bits, int byteLength) {
+        this(bits, byteLength, LongBuffer.allocate(wordCount(byteLength)));
+    }
+
+    private StatusListBitstring(int bits, int byteLength, LongBuffer words) {
+        if (bits != 1 && bits != 2 && bits != 4 && bits != 8) {
+            throw new IllegalArgumentException("Bits must be 1, 2, 4 or 8 but was %d".formatted(bits));
+        }
+        if (words.capacity() != wordCount(byteLength)) {
+            throw new IllegalArgumentException("Expected %d words for %d bytes but got %d".formatted(wordCount(byteLength), byteLength, words.capacity()));
+        }
+        this.bits = bits;
+        this.byteLength = byteLength;
+        this.capacity = (int) ((long) byteLength * Byte.SIZE / bits);
+        this.entryMask = (1L << bits) - 1;
+        this.lowestBitMask = replicate(1);
+        this.words = words;
+        this.wordCount = words.capacity();
+    }
+
+    /**
+     * Uses the words of the buffer without copying them, eg. of a memory mapped file
+     *
+     * @param bits       how many bits each status list entry has, 1, 2, 4 or 8
+     * @param byteLength length of the status list in bytes
+     * @param words      the words of the status list, a read only buffer makes the bitstring read only
+     */
+    public static StatusListBitstring wrap(int bits, int byteLength, LongBuffer words) {
+        return new StatusListBitstring(bits, byteLength, words);
+    }
+
+    /**
+     * @param byteLength length of the status list in bytes
+     * @return the number of words needed for the status list
+     */
+    public static int wordCount(int byteLength) {
+        return (byteLength + Long.BYTES - 1) / Long.BYTES;
+    }
+
+    /**
+     * Writes all words, including the padding of the last one, eg. to fill a memory mapped file
+     *
+     * @param target buffer to write the words to at its position
+     */
+    public void writeWords(LongBuffer target) {
+        target.put(words.duplicate().clear());
+    }
+
+    /**
+     * @param bits       how many bits each status list entry has, 1, 2, 4 or 8
+     * @param statusList the bytes of the status list as defined by the token status list format
+     */
+    public static StatusListBitstring fromBytes(int bits, byte[] statusList) {
+        var bitstring = new StatusListBitstring(bits, statusList.length);
+        var buffer = ByteBuffer.wrap(statusList).order(ByteOrder.LITTLE_ENDIAN);
+        int fullWords = statusList.length / Long.BYTES;
+        bitstring.words.put(0, buffer.asLongBuffer(), 0, fullWords);
+        long lastWord = 0;
+        for (int i = fullWords * Long.BYTES; i < statusList.length; i++) {
+            lastWord |= (statusList[i] & 0xFFL) << ((i % Long.BYTES) * Byte.SIZE);
+        }
+        if (fullWords < bitstring.wordCount) {
+            bitstring.words.put(fullWords, lastWord);
+        }
+        return bitstring;
+    }
+
+    /**
+     * @return the bytes of the status list as defined by the token status list format
+     */
+    public byte[] toByteArray() {
+        var statusList = new byte[byteLength];
+        copyBytes(0, statusList, byteLength);
+        return statusList;
+    }
+
+    /**
+     * Copies a range of the status list bytes
+     *
+     * @param fromByte offset in the status list to start copying at, must be a multiple of 8
+     * @param target   array to copy the bytes to, starting at its beginning
+     * @param length   number of bytes to copy
+     */
+    public void copyBytes(int fromByte, byte[] target, int length) {
+        if (fromByte % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Offset must be word aligned but was %d".formatted(fromByte));
+        }
+        Objects.checkFromIndexSize(fromByte, length, byteLength);
+        int firstWord = fromByte / Long.BYTES;
+        int fullWords = length / Long.BYTES;
+        ByteBuffer.wrap(target).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(0, words, firstWord, fullWords);
+        for (int i = fullWords * Long.BYTES; i < length; i++) {
+            target[i] = (byte) (words.get(firstWord + fullWords) >>> ((i % Long.BYTES) * Byte.SIZE));
+        }
+    }
+
+    /**
+     * @param idx index of the status list entry
+     * @return the status of the entry
+     */
+    public int get(int idx) {
+        long bitIndex = (long) Objects.checkIndex(idx, capacity) * bits;
+        return (int) ((words.get((int) (bitIndex >>> 6)) >>> bitIndex) & entryMask);
+    }
+
+    /**
+     * @param idx    index of the status list entry
+     * @param status the new status of the entry, replacing the previous one
+     */
+    public void set(int idx, int status) {
+        verifyStatus(status);
+        setUnchecked(Objects.checkIndex(idx, capacity), status);
+    }
+
+    /**
+     * Sets the same status for many entries, checking the status only once
+     *
+     * @param indices indices of the status list entries
+     * @param status  the new status of the entries
+     */
+    public void setAll(int[] indices, int status) {
+        verifyStatus(status);
+        for (int idx : indices) {
+            setUnchecked(Objects.checkIndex(idx, capacity), status);
+        }
+    }
+
+    /**
+     * @param status the status to count
+     * @return the number of entries having the status
+     */
+    public long count(int status) {
+        verifyStatus(status);
+        long pattern = replicate(status);
+        long count = 0;
+        int lastWord = wordCount - 1;
+        for (int i = 0; i < lastWord; i++) {
+            count += Long.bitCount(matches(words.get(i), pattern));
+        }
+        if (lastWord >= 0) {
+            count += Long.bitCount(matches(words.get(lastWord), pattern) & validEntriesOfLastWord());
+        }
+        return count;
+    }
+
+    /**
+     * Counts all status values in one pass over the words
+     *
+     * @return the number of entries per status, indexed by the status value
+     */
+    public long[] histogram() {
+        var histogram = new long[(int) entryMask + 1];
+        if (wordCount == 0) {
+            return histogram;
+        }
+        int lastWord = wordCount - 1;
+        if (bits == Byte.SIZE) {
+            // An entry is a byte, so it can be used as index directly
+            for (int i = 0; i < lastWord; i++) {
+                for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+                    histogram[(int) (words.get(i) >>> shift) & 0xFF]++;
+                }
+            }
+        } else {
+            var patterns = new long[histogram.length];
+            for (int status = 1; status < patterns.length; status++) {
+                patterns[status] = replicate(status);
+            }
+            for (int i = 0; i < lastWord; i++) {
+                long word = words.get(i);
+                // Status 0 is derived from the others below
+                for (int status = 1; status < patterns.length; status++) {
+                    histogram[status] += Long.bitCount(matches(word, patterns[status]));
+                }
+            }
+        }
+        int firstIdxOfLastWord = (int) ((long) lastWord * Long.SIZE / bits);
+        for (int idx = firstIdxOfLastWord; idx < capacity; idx++) {
+            histogram[get(idx)]++;
+        }
+        if (bits != Byte.SIZE) {
+            long nonZero = 0;
+            for (int status = 1; status < histogram.length; status++) {
+                nonZero += histogram[status];
+            }
+            histogram[0] = capacity - nonZero;
+        }
+        return histogram;
+    }
+
+    /**
+     * @param status  the status to search for
+     * @param fromIdx index to start the search at, inclusive
+     * @param limit   maximum number of indices to return
+     * @return the indices of the entries at or after fromIdx having the status, in ascending order
+     */
+    public int[] indicesOf(int status, int fromIdx, int limit) {
+        verifyStatus(status);
+        if (fromIdx < 0 || fromIdx >= capacity || limit <= 0) {
+            return new int[0];
+        }
+        int maxFound = Math.min(limit, capacity - fromIdx);
+        // Grown on demand, sizing it by counting the matches first would scan the whole list for small limits
+        var indices = new int[Math.min(maxFound, INITIAL_INDICES_LENGTH)];
+        int found = 0;
+        long pattern = replicate(status);
+        long bitIndex = (long) fromIdx * bits;
+        int wordIndex = (int) (bitIndex >>> 6);
+        long candidates = matches(words.get(wordIndex), pattern) & (-1L << bitIndex);
+        while (found < maxFound) {
+            if (wordIndex == wordCount - 1) {
+                candidates &= validEntriesOfLastWord();
+            }
+            // Take the matches of the word lowest bit first
+            while (candidates != 0 && found < maxFound) {
+                if (found == indices.length) {
+                    indices = Arrays.copyOf(indices, (int) Math.min(maxFound, 2L * indices.length));
+                }
+                indices[found++] = (int) (((long) wordIndex * Long.SIZE + Long.numberOfTrailingZeros(candidates)) / bits);
+                candidates &= candidates - 1;
+            }
+            if (++wordIndex == wordCount) {
+                break;
+            }
+            candidates = matches(words.get(wordIndex), pattern);
+        }
+        return found == indices.length ? indices : Arrays.copyOf(indices, found);
+    }
+
+    /**
+     * @param fromIdx index to start the search at, inclusive
+     * @param status  the status to search for
+     * @return the index of the first entry at or after fromIdx having the status or -1 if there is none
+     */
+    public int nextIndexOf(int fromIdx, int status) {
+        verifyStatus(status);
+        if (fromIdx < 0 || fromIdx >= capacity) {
+            return -1;
+        }
+        long pattern = replicate(status);
+        long bitIndex = (long) fromIdx * bits;
+        int wordIndex = (int) (bitIndex >>> 6);
+        // Ignore the entries before fromIdx in the first word
+        long candidates = matches(words.get(wordIndex), pattern) & (-1L << bitIndex);
+        while (true) {
+            if (wordIndex == wordCount - 1) {
+                candidates &= validEntriesOfLastWord();
+            }
+            if (candidates != 0) {
+                return (int) (((long) wordIndex * Long.SIZE + Long.numberOfTrailingZeros(candidates)) / bits);
+            }
+            if (++wordIndex == wordCount) {
+                return -1;
+            }
+            candidates = matches(words.get(wordIndex), pattern);
+        }
+    }
+
+    /**
+     * @param fromIdx index to start the search at, inclusive
+     * @return the index of the first entry at or after fromIdx with status 0 or -1 if there is none
+     */
+    public int nextFreeIndex(int fromIdx) {
+        return nextIndexOf(fromIdx, 0);
+    }
+
+    private void setUnchecked(int idx, int status) {
+        long bitIndex = (long) idx * bits;
+        int wordIndex = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        words.put(wordIndex, (words.get(wordIndex) & ~(entryMask << shift)) | ((long) status << shift));
+    }
+
+    /**
+     * @return a word with the lowest bit of every entry set, for which the entry equals the pattern entry
+     */
+    private long matches(long word, long pattern) {
+        long difference = word ^ pattern;
+        // Collect any difference of an entry in its lowest bit
+        long folded = difference;
+        for (int shift = 1; shift < bits; shift++) {
+            folded |= difference >>> shift;
+        }
+        return ~folded & lowestBitMask;
+    }
+
+    /**
+     * @return mask of the bits in the last word belonging to entries within the capacity
+     */
+    private long validEntriesOfLastWord() {
+        long usedBits = (long) capacity * bits - (long) (wordCount - 1) * Long.SIZE;
+        return usedBits >= Long.SIZE ? -1L : (1L << usedBits) - 1;
+    }
+
+    /**
+     * @return a word with every entry set to the value
+     */
+    private long replicate(int value) {
+        long word = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += bits) {
+            word |= (long) value << shift;
+        }
+        return word;
+    }
+
+    private void verifyStatus(int status) {
+        if (status < 0 || status > entryMask) {
+            throw new IllegalArgumentException("Status can not exceed bits but was %d while expecting maximum of %d".formatted(status, bits));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Encodes the bytes of a token status list as base64url encoded zlib stream and back.
+ * <p>
+ * Deflater and Inflater are reused per thread and the data is processed in chunks,
+ * so neither the compressed bytes nor intermediate copies of the status list are materialized as a whole.
+ * </p>
+ */
+@UtilityClass
+public class StatusListCodec {
+
+    /**
+     * Default limit for the size of a decoded status list, protecting against decompression bombs
+     */
+    public static final int DEFAULT_MAX_DECODED_SIZE = 100 * 1024 * 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int COMPRESSION_LEVEL = 9;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(COMPRESSION_LEVEL));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<byte[]> CHUNK = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+
+    /**
+     * @param statusList the bytes of the status list
+     * @return the zlib compressed, base64url encoded status list as used in the lst claim
+     */
+    public static String encode(byte[] statusList) {
+        var deflater = DEFLATER.get();
+        var chunk = CHUNK.get();
+        var encoded = new ByteArrayOutputStream(CHUNK_SIZE);
+        try (var base64 = Base64.getUrlEncoder().withoutPadding().wrap(encoded)) {
+            deflater.setInput(statusList);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int length = deflater.deflate(chunk);
+                base64.write(chunk, 0, length);
+            }
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        } finally {
+            deflater.reset();
+        }
+        return encoded.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @param lst            the zlib compressed, base64url encoded status list
+     * @param maxDecodedSize the maximum number of bytes the decoded status list may have
+     * @return the bytes of the status list
+     * @throws IOException if lst is not a compressed status list or is larger than allowed when decoded
+     */
+    public static byte[] decode(String lst, int maxDecodedSize) throws IOException {
+        var inflater = INFLATER.get();
+        var chunk = CHUNK.get();
+        var decoded = new byte[Math.min(maxDecodedSize, Math.max(CHUNK_SIZE, lst.length()))];
+        int decodedLength = 0;
+        try (var base64 = Base64.getUrlDecoder().wrap(new AsciiInputStream(lst))) {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    int read = base64.readNBytes(chunk, 0, chunk.length);
+                    if (read == 0) {
+                        throw new ZipException("Status list is truncated");
+                    }
+                    inflater.setInput(chunk, 0, read);
+                }
+                if (decodedLength == decoded.length) {
+                    if (decoded.length == maxDecodedSize) {
+                        rejectFurtherOutput(inflater, maxDecodedSize);
+                        continue;
+                    }
+                    decoded = Arrays.copyOf(decoded, (int) Math.min(maxDecodedSize, 2L * decoded.length));
+                }
+                decodedLength += inflater.inflate(decoded, decodedLength, decoded.length - decodedLength);
+                if (inflater.needsDictionary()) {
+                    throw new ZipException("Status list requires a preset dictionary");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Status list is not a valid zlib stream: " + e.getMessage());
+        } finally {
+            inflater.reset();
+        }
+        return decodedLength == decoded.length ? decoded : Arrays.copyOf(decoded, decodedLength);
+    }
+
+    /**
+     * Inflates the status list straight into the buffer, eg. a memory mapped file, without a copy on the heap
+     *
+     * @param lst    the zlib compressed, base64url encoded status list
+     * @param target buffer receiving the bytes of the status list from its position, its remaining bytes are the
+     *               maximum size of the decoded status list
+     * @return the number of bytes of the status list
+     * @throws IOException if lst is not a compressed status list or does not fit into the buffer
+     */
+    public static int decode(String lst, ByteBuffer target) throws IOException {
+        var inflater = INFLATER.get();
+        var chunk = CHUNK.get();
+        int start = target.position();
+        try (var base64 = Base64.getUrlDecoder().wrap(new AsciiInputStream(lst))) {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    int read = base64.readNBytes(chunk, 0, chunk.length);
+                    if (read == 0) {
+                        throw new ZipException("Status list is truncated");
+                    }
+                    inflater.setInput(chunk, 0, read);
+                }
+                if (!target.hasRemaining()) {
+                    rejectFurtherOutput(inflater, target.position() - start);
+                    continue;
+                }
+                inflater.inflate(target);
+                if (inflater.needsDictionary()) {
+                    throw new ZipException("Status list requires a preset dictionary");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Status list is not a valid zlib stream: " + e.getMessage());
+        } finally {
+            inflater.reset();
+        }
+        return target.position() - start;
+    }
+
+    /**
+     * FNV-1a hash over the characters together with the length, computed without copying the string.
+     * The status lists are written by the issuer management, so the hash only has to detect changes.
+     *
+     * @param lst the zlib compressed, base64url encoded status list
+     * @return a fingerprint identifying the version of the status list
+     */
+    public static String fingerprint(String lst) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < lst.length(); i++) {
+            hash ^= lst.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return "%x-%016x".formatted(lst.length(), hash);
+    }
+
+    /**
+     * Fails if the stream produces any more output once the maximum size is reached
+     */
+    private static void rejectFurtherOutput(Inflater inflater, int maxDecodedSize) throws DataFormatException, ZipException {
+        if (inflater.inflate(new byte[1]) > 0) {
+            throw new ZipException("Status list exceeds the maximum size of %d bytes".formatted(maxDecodedSize));
+        }
+    }
+
+    /**
+     * Reads the characters of a base64 string as bytes, without copying the string
+     */
+    private static final class AsciiInputStream extends InputStream {
+        private final String value;
+        private int position;
+
+        AsciiInputStream(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int read() {
+            return position < value.length() ? value.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= value.length()) {
+                return len == 0 ? 0 : -1;
+            }
+            int end = Math.min(value.length(), position + len);
+            for (int i = position; i < end; i++) {
+                b[off++] = (byte) value.charAt(i);
+            }
+            int read = end - position;
+            position = end;
+            return read;
+        }
+    }
+}
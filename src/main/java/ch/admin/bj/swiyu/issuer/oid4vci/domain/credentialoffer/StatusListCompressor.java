@@ -0,0 +1,179 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * Incremental zlib compression of a status list bitstring.
+ * <p>
+ * The status list bytes are split into fixed size blocks which are deflated independently and cached.
+ * Every block but the last one is terminated with a sync flush, so the cached raw deflate blocks can be
+ * concatenated to a single valid zlib stream. Changing an entry only marks its block as dirty and the next
+ * encoding recompresses the dirty blocks only. The adler32 checksum of the stream is combined from the checksums
+ * of the blocks.
+ * </p>
+ * <p>
+ * A status list fitting into a single block is encoded exactly like {@link StatusListCodec#encode(byte[])}.
+ * </p>
+ */
+public final class StatusListCompressor {
+
+    /**
+     * Default size of a block in bytes of the status list
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    private static final int COMPRESSION_LEVEL = 9;
+    /**
+     * zlib header for deflate with a 32K window and maximum compression
+     */
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0xDA};
+    private static final int ADLER_BASE = 65521;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(COMPRESSION_LEVEL, true));
+
+    private final StatusListBitstring bitstring;
+    private final int blockSize;
+    private final byte[][] compressedBlocks;
+    private final int[] blockChecksums;
+    private final BitSet dirtyBlocks;
+
+    /**
+     * @param bitstring the bitstring to compress, all blocks are initially dirty
+     * @param blockSize size of a block in bytes, must be a positive multiple of 8
+     */
+    public StatusListCompressor(StatusListBitstring bitstring, int blockSize) {
+        if (blockSize <= 0 || blockSize % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Block size must be a positive multiple of 8 but was %d".formatted(blockSize));
+        }
+        this.bitstring = bitstring;
+        this.blockSize = blockSize;
+        int blockCount = Math.max(1, (bitstring.getByteLength() + blockSize - 1) / blockSize);
+        this.compressedBlocks = new byte[blockCount][];
+        this.blockChecksums = new int[blockCount];
+        this.dirtyBlocks = new BitSet(blockCount);
+        this.dirtyBlocks.set(0, blockCount);
+    }
+
+    /**
+     * Marks the block containing the status list entry as changed
+     *
+     * @param idx index of the status list entry
+     */
+    public void markDirty(int idx) {
+        dirtyBlocks.set((int) ((long) idx * bitstring.getBits() / Byte.SIZE / blockSize));
+    }
+
+    /**
+     * @param indices indices of the changed status list entries
+     */
+    public void markDirty(int[] indices) {
+        for (int idx : indices) {
+            markDirty(idx);
+        }
+    }
+
+    /**
+     * @return the number of blocks which have to be recompressed on the next encoding
+     */
+    int dirtyBlockCount() {
+        return dirtyBlocks.cardinality();
+    }
+
+    /**
+     * Recompresses the dirty blocks and assembles the status list
+     *
+     * @return the zlib compressed, base64url encoded status list as used in the lst claim
+     */
+    public String encode() {
+        var block = dirtyBlocks.isEmpty() ? null : new byte[Math.min(blockSize, bitstring.getByteLength())];
+        for (int i = dirtyBlocks.nextSetBit(0); i >= 0; i = dirtyBlocks.nextSetBit(i + 1)) {
+            compressBlock(i, block);
+        }
+        dirtyBlocks.clear();
+
+        int compressedLength = ZLIB_HEADER.length + Integer.BYTES;
+        for (var compressedBlock : compressedBlocks) {
+            compressedLength += compressedBlock.length;
+        }
+        var encoded = new ByteArrayOutputStream((compressedLength + 2) / 3 * 4);
+        try (var base64 = Base64.getUrlEncoder().withoutPadding().wrap(encoded)) {
+            base64.write(ZLIB_HEADER);
+            long checksum = 1;
+            for (int i = 0; i < compressedBlocks.length; i++) {
+                base64.write(compressedBlocks[i]);
+                checksum = combineAdler32(checksum, blockChecksums[i] & 0xFFFFFFFFL, blockLength(i));
+            }
+            base64.write(new byte[]{(byte) (checksum >>> 24), (byte) (checksum >>> 16), (byte) (checksum >>> 8), (byte) checksum});
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        return encoded.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    private void compressBlock(int blockIndex, byte[] block) {
+        int length = blockLength(blockIndex);
+        bitstring.copyBytes(blockIndex * blockSize, block, length);
+
+        var adler32 = new Adler32();
+        adler32.update(block, 0, length);
+        blockChecksums[blockIndex] = (int) adler32.getValue();
+
+        var deflater = DEFLATER.get();
+        var compressed = new ByteArrayOutputStream(Math.max(64, length / 8));
+        var chunk = new byte[Math.max(64, Math.min(length, 16 * 1024))];
+        try {
+            deflater.setInput(block, 0, length);
+            if (blockIndex == compressedBlocks.length - 1) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(chunk, 0, deflater.deflate(chunk));
+                }
+            } else {
+                // A sync flush ends the block byte aligned without marking it as final
+                int written;
+                do {
+                    written = deflater.deflate(chunk, 0, chunk.length, Deflater.SYNC_FLUSH);
+                    compressed.write(chunk, 0, written);
+                } while (written == chunk.length);
+            }
+        } finally {
+            deflater.reset();
+        }
+        compressedBlocks[blockIndex] = compressed.toByteArray();
+    }
+
+    private int blockLength(int blockIndex) {
+        return Math.min(blockSize, bitstring.getByteLength() - blockIndex * blockSize);
+    }
+
+    /**
+     * Combines the adler32 checksums of two consecutive byte sequences, as adler32_combine of zlib
+     *
+     * @param adler1  checksum of the first sequence
+     * @param adler2  checksum of the second sequence
+     * @param length2 length of the second sequence
+     * @return the checksum of the concatenated sequences
+     */
+    static long combineAdler32(long adler1, long adler2, int length2) {
+        long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = (remainder * sum1) % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + ADLER_BASE - remainder;
+        sum1 %= ADLER_BASE;
+        sum2 %= ADLER_BASE;
+        return (sum2 << 16) | sum1;
+    }
+}
@@ -7,10 +7,39 @@
 package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface StatusListRepository extends JpaRepository<StatusList, UUID> {
+
+    /**
+     * Reserves the next indices of the status list by moving its next free index, if enough indices are left.
+     * The row stays locked until the transaction ends, so the new next free index can be read in the same transaction.
+     *
+     * @return 1 if the indices were reserved, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StatusList s SET s.nextFreeIndex = s.nextFreeIndex + :count WHERE s.id = :id AND s.nextFreeIndex + :count <= s.maxLength")
+    int reserveIndices(@Param("id") UUID id, @Param("count") int count);
+
+    /**
+     * Returns the indices from start up to the next free index, if no other indices were reserved since.
+     *
+     * @return 1 if the indices were returned, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StatusList s SET s.nextFreeIndex = :start WHERE s.id = :id AND s.nextFreeIndex = :end")
+    int releaseIndices(@Param("id") UUID id, @Param("start") int start, @Param("end") int end);
+
+    @Query("SELECT s.nextFreeIndex FROM StatusList s WHERE s.id = :id")
+    Optional<Integer> findNextFreeIndex(@Param("id") UUID id);
+
+    @Query("SELECT s.maxLength - s.nextFreeIndex FROM StatusList s WHERE s.id = :id")
+    Optional<Integer> findRemainingIndices(@Param("id") UUID id);
 }
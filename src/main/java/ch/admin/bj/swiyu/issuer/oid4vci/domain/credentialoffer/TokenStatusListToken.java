@@ -6,44 +6,35 @@
 
 package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
 
-import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Base64;
 import java.util.Map;
-import java.util.zip.DataFormatException;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterOutputStream;
 
 /**
  * See <a href="https://www.ietf.org/archive/id/draft-ietf-oauth-status-list-02.html#name-status-list-token-in-jwt-fo">spec</a>
  * Status List published on registry
  */
 @Slf4j
-@Getter
 public class TokenStatusListToken {
 
-    /**
-     * zlib needs some maximum buffer size.
-     * Randomly chosen 100 MB
-     */
-    private static int BUFFER_SIZE = 100 * 1024 * 1024;
     /**
      * Indicator how many consecutive bits of the token status list are contained within one status list entry.
      * Can be 1, 2, 4 or 8
      * bit 0x1 is always revocation
      * bit 0x2 is always suspension (if available)
      */
+    @Getter
     private final int bits;
     /**
-     * zlib zipped & url encoded bytes containing the status information
+     * Status information, zlib zipped & url encoded when published
+     */
+    private final StatusListBitstring statusList;
+    /**
+     * Keeps the compressed blocks of the status list, so only changed blocks are compressed again
      */
-    private byte[] statusList;
+    private final StatusListCompressor compressor;
 
 
     /**
@@ -54,7 +45,8 @@ public class TokenStatusListToken {
      */
     public TokenStatusListToken(int bits, int statusListLength) {
         this.bits = bits;
-        statusList = new byte[statusListLength];
+        statusList = new StatusListBitstring(bits, statusListLength);
+        compressor = new StatusListCompressor(statusList, StatusListCompressor.DEFAULT_BLOCK_SIZE);
     }
 
     /**
@@ -65,11 +57,30 @@ public class TokenStatusListToken {
      */
     public TokenStatusListToken(int bits, byte[] statusList) {
         this.bits = bits;
+        this.statusList = StatusListBitstring.fromBytes(bits, statusList);
+        this.compressor = new StatusListCompressor(this.statusList, StatusListCompressor.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Token status list on an existing bitstring, eg. a memory mapped one of {@link DecodedStatusListCache}
+     *
+     * @param statusList the bitstring of the status list, changes of the token are applied to it
+     */
+    public TokenStatusListToken(StatusListBitstring statusList) {
+        this.bits = statusList.getBits();
         this.statusList = statusList;
+        this.compressor = new StatusListCompressor(statusList, StatusListCompressor.DEFAULT_BLOCK_SIZE);
     }
 
     public static TokenStatusListToken loadTokenStatusListToken(int bits, String lst) throws IOException {
-        return new TokenStatusListToken(bits, decodeStatusList(lst));
+        return loadTokenStatusListToken(bits, lst, StatusListCodec.DEFAULT_MAX_DECODED_SIZE);
+    }
+
+    /**
+     * @param maxDecodedSize maximum size of the status list in bytes, larger lists are rejected while decompressing them
+     */
+    public static TokenStatusListToken loadTokenStatusListToken(int bits, String lst, int maxDecodedSize) throws IOException {
+        return new TokenStatusListToken(bits, StatusListCodec.decode(lst, maxDecodedSize));
     }
 
     /**
@@ -78,11 +89,18 @@ public class TokenStatusListToken {
      * @return a claim set containing
      */
     public Map<String, Object> getStatusListClaims() {
-        return Map.of("bits", bits, "lst", encodeStatusList(statusList));
+        return Map.of("bits", bits, "lst", compressor.encode());
     }
 
     public String getStatusListData() {
-        return encodeStatusList(statusList);
+        return compressor.encode();
+    }
+
+    /**
+     * @return the bytes of the status list as defined by the token status list format
+     */
+    public byte[] getStatusList() {
+        return statusList.toByteArray();
     }
 
     /**
@@ -97,16 +115,7 @@ public class TokenStatusListToken {
      * @return the status bits as an integer
      */
     public int getStatus(int idx) {
-        byte entryByte = getStatusEntryByte(idx);
-        // The starting position of the status in the Byte
-        var bitIndex = (idx * bits) % 8;
-        // Mask to remove all bits larger than the status
-        var mask = (1 << bitIndex << bits) - 1;
-        // Drop all bits larger than our status
-        var maskedByte = entryByte & mask;
-        // Shift the status to the start of the byte so 1 = revoked, 2 = suspended, etc, also removes all bits smaller than our status
-        var vcStatus = maskedByte >> bitIndex;
-        return vcStatus;
+        return statusList.get(idx);
     }
 
     /**
@@ -116,11 +125,19 @@ public class TokenStatusListToken {
      * @param status The new status to be set
      */
     public void setStatus(int idx, int status) {
-        verifyStatusArgument(status);
-        unsetStatus(idx);
-        byte entryByte = getStatusEntryByte(idx);
-        entryByte |= getBitPosition(idx, status);
-        setStatusEntryByte(idx, entryByte);
+        statusList.set(idx, status);
+        compressor.markDirty(idx);
+    }
+
+    /**
+     * Sets the same status for many status list entries
+     *
+     * @param indices indices of the status list entries
+     * @param status  The new status to be set
+     */
+    public void setStatus(int[] indices, int status) {
+        statusList.setAll(indices, status);
+        compressor.markDirty(indices);
     }
 
     /**
@@ -129,89 +146,56 @@ public class TokenStatusListToken {
      * @param idx index of the status list entry
      */
     public void unsetStatus(int idx) {
-        int status = (1 << bits) - 1;
-        verifyStatusArgument(status);
-        byte entryByte = getStatusEntryByte(idx);
-        // Shift the bit to the correct position in the byte
-        entryByte &= ~getBitPosition(idx, status);
-        setStatusEntryByte(idx, entryByte);
-    }
-
-    public boolean canRevoke() {
-        return bits >= TokenStatsListBit.REVOKE.getValue();
-    }
-
-    public boolean canSuspend() {
-        return bits >= TokenStatsListBit.SUSPEND.getValue();
+        statusList.set(idx, 0);
+        compressor.markDirty(idx);
     }
 
     /**
-     * Moves the status bit to the correct position in a byte
-     * eg. with bits=2 and index 1 will move a status of 1 to
-     * 0b00000100
-     *
-     * @param idx    index of the entry
-     * @param status a status bit
-     * @return the status bit moved to the position in a byte
+     * @param status the status to count
+     * @return the number of status list entries having the status
      */
-    private int getBitPosition(int idx, int status) {
-        return status << (idx * bits) % 8;
+    public long countStatus(int status) {
+        return statusList.count(status);
     }
 
-    private void verifyStatusArgument(int status) {
-        if (1 << bits <= status) {
-            throw new IllegalArgumentException("Status can not exceed bits but was %d while expecting maximum of %d".formatted(status, bits));
-        }
+    public long countRevoked() {
+        return countStatus(TokenStatsListBit.REVOKE.getValue());
     }
 
-    private byte getStatusEntryByte(int idx) {
-        return statusList[idx * bits / 8];
+    public long countSuspended() {
+        return canSuspend() ? countStatus(TokenStatsListBit.SUSPEND.getValue()) : 0;
     }
 
     /**
-     * Warning, this sets the whole byte, can therefore also affect neighbouring statuses if statusValue is incorrect
-     *
-     * @param idx
-     * @param statusValue the bytes from getStatusEntryByte but modified
+     * @return the number of status list entries per status, indexed by the status value
      */
-    private void setStatusEntryByte(int idx, byte statusValue) {
-        statusList[idx * bits / 8] = statusValue;
+    public long[] getStatusHistogram() {
+        return statusList.histogram();
     }
 
-    private static String encodeStatusList(byte[] statusList) {
-        // zipping the data
-        try {
-            var zlibOutput = new ByteArrayOutputStream();
-            var deflaterStream = new DeflaterOutputStream(zlibOutput, new Deflater(9));
-            deflaterStream.write(statusList);
-            deflaterStream.finish();
-            byte[] clippedZlibOutput = Arrays.copyOf(zlibOutput.toByteArray(), zlibOutput.size());
-            deflaterStream.close();
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(clippedZlibOutput);
-        } catch (IOException e) {
-            log.error("Error occurred during zipping of Status List data", e);
-            throw new ConfigurationException("Status List data can not be zipped");
-        }
+    /**
+     * @param status  the status to search for
+     * @param fromIdx index to start the search at, inclusive
+     * @param limit   maximum number of indices to return
+     * @return the indices of the status list entries at or after fromIdx having the status, in ascending order
+     */
+    public int[] getIndicesWithStatus(int status, int fromIdx, int limit) {
+        return statusList.indicesOf(status, fromIdx, limit);
     }
 
     /**
-     * @param lst
-     * @return the bytes of the status list
-     * @throws DataFormatException if the lst is not a zlib compressed status list
+     * @param fromIdx index to start the search at, inclusive
+     * @return the index of the first status list entry at or after fromIdx with status 0 or -1 if there is none
      */
-    private static byte[] decodeStatusList(String lst) throws IOException {
-        // base64 decoding the data
-        byte[] zippedData = Base64.getUrlDecoder().decode(lst);
-
-
-        var zlibOutput = new ByteArrayOutputStream();
-        var inflaterStream = new InflaterOutputStream(zlibOutput);
-        inflaterStream.write(zippedData);
-        inflaterStream.finish();
-        byte[] clippedZlibOutput = Arrays.copyOf(zlibOutput.toByteArray(), zlibOutput.size());
-        inflaterStream.close();
-        return clippedZlibOutput;
+    public int nextFreeIndex(int fromIdx) {
+        return statusList.nextFreeIndex(fromIdx);
+    }
 
+    public boolean canRevoke() {
+        return bits >= TokenStatsListBit.REVOKE.getValue();
     }
 
+    public boolean canSuspend() {
+        return bits >= TokenStatsListBit.SUSPEND.getValue();
+    }
 }
@@ -6,13 +6,13 @@
 
 package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest;
 
-import java.util.Map;
 import java.util.Optional;
 
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.Proof;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofJwt;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofType;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -24,6 +24,7 @@ import lombok.Data;
  * Representation of an <a href="https://openid.net/specs/openid-4-verifiable-credential-issuance-1_0-ID1.html#section-7.2">OID4VCI Credential Request</a>
  * using the parameters for the pre-authenticated flow
  */
+@JsonDeserialize(using = CredentialRequestDeserializer.class)
 @Data
 @Builder
 @AllArgsConstructor
@@ -35,7 +36,7 @@ public class CredentialRequest {
 
     @Schema(description = "Proof for holder binding. Can be in key:did or cnf format.")
     @CredentialRequestProofConstraint
-    private Map<String, Object> proof;
+    private CredentialRequestProof proof;
 
     /**
      * If this request element is not present, the corresponding credential response returned is not encrypted
@@ -44,16 +45,14 @@ public class CredentialRequest {
     private CredentialResponseEncryption credentialResponseEncryption;
 
     public Optional<Proof> getProof(int acceptaleProofTimeWindow) {
-        var key = "proof_type";
-        if (proof == null || proof.get(key) == null) {
+        if (proof == null || proof.getProofType() == null) {
             return Optional.empty();
         }
-        if (proof.get(key).equals(ProofType.JWT.toString())) {
-            Optional.ofNullable(proof.get("jwt"))
-                    .filter(jwt -> jwt instanceof String)
-                    .map(jwt -> (String) jwt)
-                    .orElseThrow(() -> new IllegalArgumentException("jwt property needs to be present when proof_type is jwt"));
-            return Optional.of(new ProofJwt(ProofType.JWT, proof.get(ProofType.JWT.toString()).toString(), acceptaleProofTimeWindow));
+        if (ProofType.JWT.getDisplayName().equals(proof.getProofType())) {
+            if (proof.getJwt() == null) {
+                throw new IllegalArgumentException("jwt property needs to be present when proof_type is jwt");
+            }
+            return Optional.of(new ProofJwt(ProofType.JWT, proof.getJwt(), acceptaleProofTimeWindow));
         } else {
             throw new IllegalArgumentException("Any other proof type than jwt is not supported");
         }
@@ -0,0 +1,174 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Binds a {@link CredentialRequest} in a single pass over the token stream.
+ * <p>
+ * Only the parameters used for issuance are materialized, the proof JWT is taken as it is read from the parser.
+ * Everything else is skipped, which fails as soon as the nesting exceeds {@link #MAX_NESTING_DEPTH}
+ * instead of building the whole structure first.
+ * </p>
+ */
+public class CredentialRequestDeserializer extends StdDeserializer<CredentialRequest> {
+
+    /**
+     * Deepest nesting of a legitimate credential request is the jwk of the credential response encryption.
+     */
+    static final int MAX_NESTING_DEPTH = 8;
+
+    public CredentialRequestDeserializer() {
+        super(CredentialRequest.class);
+    }
+
+    @Override
+    public CredentialRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        expectStartObject(p, ctxt, CredentialRequest.class);
+        var request = CredentialRequest.builder();
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            switch (field) {
+                case "format" -> request.format(readString(p, ctxt, CredentialRequest.class));
+                case "proof" -> request.proof(readProof(p, ctxt));
+                case "credential_response_encryption" -> request.credentialResponseEncryption(readEncryption(p, ctxt));
+                default -> skip(p, ctxt, 1);
+            }
+        }
+        return request.build();
+    }
+
+    private static CredentialRequestProof readProof(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(p, ctxt, CredentialRequestProof.class);
+        var proof = new CredentialRequestProof();
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            // Members of unsupported proof types are dropped, but the proof must still be rejected without proof_type
+            proof.setMembersPresent(true);
+            switch (field) {
+                case "proof_type" -> proof.setProofType(readString(p, ctxt, CredentialRequestProof.class));
+                case "jwt" -> proof.setJwt(readString(p, ctxt, CredentialRequestProof.class));
+                default -> skip(p, ctxt, 2);
+            }
+        }
+        return proof;
+    }
+
+    private static CredentialResponseEncryption readEncryption(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(p, ctxt, CredentialResponseEncryption.class);
+        var encryption = new CredentialResponseEncryption();
+        for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+            p.nextToken();
+            switch (field) {
+                case "alg" -> encryption.setAlg(readString(p, ctxt, CredentialResponseEncryption.class));
+                case "enc" -> encryption.setEnc(readString(p, ctxt, CredentialResponseEncryption.class));
+                case "jwk" -> encryption.setJwk(readJwk(p, ctxt));
+                default -> skip(p, ctxt, 2);
+            }
+        }
+        return encryption;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readJwk(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expectStartObject(p, ctxt, Map.class);
+        return (Map<String, Object>) readValue(p, ctxt, 2);
+    }
+
+    /**
+     * Reads the value at the current token into maps, lists and scalars like untyped Jackson binding does
+     */
+    private static Object readValue(JsonParser p, DeserializationContext ctxt, int depth) throws IOException {
+        return switch (p.currentToken()) {
+            case START_OBJECT -> {
+                checkDepth(ctxt, depth + 1);
+                var map = new LinkedHashMap<String, Object>();
+                for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+                    p.nextToken();
+                    map.put(field, readValue(p, ctxt, depth + 1));
+                }
+                yield map;
+            }
+            case START_ARRAY -> {
+                checkDepth(ctxt, depth + 1);
+                List<Object> list = new ArrayList<>();
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readValue(p, ctxt, depth + 1));
+                }
+                yield list;
+            }
+            case VALUE_STRING -> p.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> ctxt.handleUnexpectedToken(Object.class, p);
+        };
+    }
+
+    /**
+     * Skips the value at the current token, counting the nesting instead of delegating to {@link JsonParser#skipChildren()}
+     */
+    private static void skip(JsonParser p, DeserializationContext ctxt, int depth) throws IOException {
+        if (!p.currentToken().isStructStart()) {
+            return;
+        }
+        int nesting = depth;
+        checkDepth(ctxt, nesting + 1);
+        for (JsonToken token = p.nextToken(); ; token = p.nextToken()) {
+            if (token == null) {
+                ctxt.reportInputMismatch(CredentialRequest.class, "Unexpected end of credential request");
+            } else if (token.isStructStart()) {
+                checkDepth(ctxt, ++nesting + 1);
+            } else if (token.isStructEnd() && nesting-- == depth) {
+                return;
+            }
+        }
+    }
+
+    private static String readString(JsonParser p, DeserializationContext ctxt, Class<?> target) throws IOException {
+        var token = p.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            ctxt.reportInputMismatch(target, "Expected a string for %s", p.currentName());
+        }
+        return p.getText();
+    }
+
+    private static void expectStartObject(JsonParser p, DeserializationContext ctxt, Class<?> target) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            ctxt.reportInputMismatch(target, "Expected a JSON object for %s", target.getSimpleName());
+        }
+    }
+
+    private static void checkDepth(DeserializationContext ctxt, int depth) throws IOException {
+        if (depth > MAX_NESTING_DEPTH) {
+            ctxt.reportInputMismatch(CredentialRequest.class, "Credential request is nested deeper than %d levels", MAX_NESTING_DEPTH);
+        }
+    }
+}
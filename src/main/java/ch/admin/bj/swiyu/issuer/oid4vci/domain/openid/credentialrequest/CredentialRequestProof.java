@@ -0,0 +1,45 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <a href="https://openid.net/specs/openid-4-verifiable-credential-issuance-1_0-ID1.html#section-7.2.1">Proof</a>
+ * of possession of the key material the credential shall be bound to.
+ * Only the parameters of the supported proof types are kept.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CredentialRequestProof {
+
+    @JsonProperty("proof_type")
+    private String proofType;
+
+    /**
+     * Proof for proof_type jwt
+     */
+    private String jwt;
+
+    /**
+     * Whether the proof object had any members, including the ones which are not kept
+     */
+    @JsonIgnore
+    private boolean membersPresent;
+
+    /**
+     * @return true for an empty proof object, which counts as no proof
+     */
+    public boolean isEmpty() {
+        return !membersPresent && proofType == null && jwt == null;
+    }
+}
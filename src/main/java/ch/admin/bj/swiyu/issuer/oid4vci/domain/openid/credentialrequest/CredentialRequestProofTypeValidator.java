@@ -10,10 +10,7 @@ import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbi
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
-import java.util.Arrays;
-import java.util.Map;
-
-public class CredentialRequestProofTypeValidator implements ConstraintValidator<CredentialRequestProofConstraint, Map<String, Object>> {
+public class CredentialRequestProofTypeValidator implements ConstraintValidator<CredentialRequestProofConstraint, CredentialRequestProof> {
     @Override
     public void initialize(CredentialRequestProofConstraint constraintAnnotation) {
         ConstraintValidator.super.initialize(constraintAnnotation);
@@ -27,21 +24,20 @@ public class CredentialRequestProofTypeValidator implements ConstraintValidator<
      * @return true if the proof is a valid combination
      */
     @Override
-    public boolean isValid(Map<String, Object> proof, ConstraintValidatorContext context) {
+    public boolean isValid(CredentialRequestProof proof, ConstraintValidatorContext context) {
         if (proof == null || proof.isEmpty()) {
             // proof entry itself is optional
             return true;
         }
-        if (!proof.containsKey("proof_type")) {
+        if (proof.getProofType() == null) {
             // if there is a proof entry, the proof_type is required
             return false;
         }
-        var proofType = proof.get("proof_type").toString();
         // When proof_type is jwt, a proof object MUST include a jwt claim containing a JWT defined in Section 7.2.1.1.
         // When proof_type is cwt, a proof object MUST include a cwt claim containing a CWT defined in Section 7.2.1.3.
         // When proof_type is set to ldp_vp, the proof object MUST include a ldp_vp claim containing a W3C Verifiable Presentation defined in Section 7.2.1.2.
         // proof_type display name is equal to the claim
-        if (Arrays.stream(ProofType.values()).anyMatch(p -> p.getDisplayName().equals(proofType)) && proof.containsKey(proofType)) {
+        if (ProofType.JWT.getDisplayName().equals(proof.getProofType()) && proof.getJwt() != null) {
             return true;
         }
         // Not recognized proof type or missing claim
@@ -9,47 +9,44 @@ package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encrypt
 import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.Oid4vcException;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialResponseEncryption;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerCredentialResponseEncryption;
-import com.nimbusds.jose.EncryptionMethod;
-import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.JWEAlgorithm;
-import com.nimbusds.jose.JWEEncrypter;
-import com.nimbusds.jose.JWEHeader;
-import com.nimbusds.jose.JWEObject;
-import com.nimbusds.jose.Payload;
-import com.nimbusds.jose.crypto.ECDHEncrypter;
-import com.nimbusds.jose.crypto.RSAEncrypter;
 import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.KeyType;
 import jakarta.annotation.Nullable;
 
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
-import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 import static ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialRequestError.INVALID_ENCRYPTION_PARAMETERS;
 
+/**
+ * Encrypts credential responses with the combinations offered in the issuer metadata.
+ * The strategies for all offered alg / enc combinations are resolved when the encryptor is created.
+ */
 public class CredentialResponseEncryptor {
     @Nullable
     private final IssuerCredentialResponseEncryption offeredEncryption;
-    @Nullable
-    private final CredentialResponseEncryption requestedEncryption;
-
+    /**
+     * Strategies by alg and enc
+     */
+    private final Map<String, Map<String, ResponseEncryptionStrategy>> strategies;
 
-    public CredentialResponseEncryptor(@Nullable IssuerCredentialResponseEncryption offeredEncryption, @Nullable CredentialResponseEncryption requestedEncryption) {
+    public CredentialResponseEncryptor(@Nullable IssuerCredentialResponseEncryption offeredEncryption) {
         this.offeredEncryption = offeredEncryption;
-        this.requestedEncryption = requestedEncryption;
+        this.strategies = resolveStrategies(offeredEncryption);
     }
 
     /**
-     * Evaluates if an encryption is required
+     * Evaluates if an encryption is required and prepares it for the holder key
      *
-     * @throws Oid4vcException if an invalid offeredEncryption & requestedEncryption combination is provided
+     * @param requestedEncryption encryption parameters of the credential request, if any
+     * @return the encryption to apply to the credential response or empty if the response is not to be encrypted
+     * @throws Oid4vcException if an invalid offeredEncryption & requestedEncryption combination or an unusable key is provided
      */
-    public boolean isEncryptionRequired() {
+    public Optional<PreparedResponseEncryption> prepare(@Nullable CredentialResponseEncryption requestedEncryption) {
         // Nobody interested in encryption
         if (offeredEncryption == null && requestedEncryption == null) {
-            return false;
+            return Optional.empty();
         }
         // No offered encryption, but requested
         else if (offeredEncryption == null) {
@@ -57,24 +54,26 @@ public class CredentialResponseEncryptor {
         }
         // Encryption optional and not requested
         else if (!offeredEncryption.isEncRequired() && requestedEncryption == null) {
-            return false;
+            return Optional.empty();
         }
         // Encryption required but not requested
         else if (offeredEncryption.isEncRequired() && requestedEncryption == null) {
             throw new Oid4vcException(INVALID_ENCRYPTION_PARAMETERS, "Credential Response Encryption is mandatory.");
         }
+        var strategy = strategies.getOrDefault(requestedEncryption.getAlg(), Map.of()).get(requestedEncryption.getEnc());
         // Requested encryption method not offered
-        else if (!offeredEncryption.contains(requestedEncryption)) {
+        if (strategy == null) {
             throw new Oid4vcException(
                     INVALID_ENCRYPTION_PARAMETERS,
                     String.format("Requested encryption is not offered. alg: %s , enc: %s",
                             requestedEncryption.getAlg(), requestedEncryption.getEnc()));
         }
         // Encryption is to be done
-        return true;
+        var encrypter = strategy.createEncrypter(guardedParseJWK(requestedEncryption));
+        return Optional.of(new PreparedResponseEncryption(strategy.getHeader(), encrypter));
     }
 
-    private JWK guardedParseJWK() {
+    private static JWK guardedParseJWK(CredentialResponseEncryption requestedEncryption) {
         try {
             return JWK.parse(requestedEncryption.getJwk());
         } catch (ParseException e) {
@@ -82,60 +81,18 @@ public class CredentialResponseEncryptor {
         }
     }
 
-    private SecretKey guardedGenerateSymmetricKey(EncryptionMethod enc) {
-        SecretKey symmetricKey;
-        try {
-            KeyGenerator symmetricKeyGenerator = KeyGenerator.getInstance("AES");
-            symmetricKeyGenerator.init(enc.cekBitLength());
-            symmetricKey = symmetricKeyGenerator.generateKey();
-        } catch (NoSuchAlgorithmException e) {
-            throw new Oid4vcException(e, INVALID_ENCRYPTION_PARAMETERS, "No Key generator found algorithm");
+    private static Map<String, Map<String, ResponseEncryptionStrategy>> resolveStrategies(@Nullable IssuerCredentialResponseEncryption offeredEncryption) {
+        if (offeredEncryption == null) {
+            return Map.of();
         }
-        return symmetricKey;
-    }
-
-    private JWEEncrypter guardedCreateEncrypter(JWK key, SecretKey cek) {
-        try {
-            KeyType keyType = key.getKeyType();
-            if (keyType == KeyType.RSA) {
-                return new RSAEncrypter(key.toRSAKey().toRSAPublicKey(), cek);
-            } else if (keyType == KeyType.EC) {
-                return new ECDHEncrypter(key.toECKey().toECPublicKey(), cek);
-            } else {
-                throw new Oid4vcException(INVALID_ENCRYPTION_PARAMETERS, "Unsupported kty " + keyType.getValue());
+        Map<String, Map<String, ResponseEncryptionStrategy>> resolved = new HashMap<>();
+        for (String alg : offeredEncryption.getAlgValuesSupported()) {
+            Map<String, ResponseEncryptionStrategy> byEnc = new HashMap<>();
+            for (String enc : offeredEncryption.getEncValuesSupported()) {
+                byEnc.put(enc, ResponseEncryptionStrategy.resolve(alg, enc));
             }
-        } catch (JOSEException e) {
-            throw new Oid4vcException(e,
-                    INVALID_ENCRYPTION_PARAMETERS,
-                    "Mismatch between specified encryption algorithm, encryption & provided key - " + e.getMessage()
-            );
-        }
-    }
-
-
-    public String encryptResponse(String oid4vciCredentialJson) {
-        JWEAlgorithm alg = JWEAlgorithm.parse(requestedEncryption.getAlg());
-        EncryptionMethod enc = EncryptionMethod.parse(requestedEncryption.getEnc());
-        JWK holderPublicKey = guardedParseJWK();
-        SecretKey cek = guardedGenerateSymmetricKey(enc);
-
-
-        JWEHeader header = new JWEHeader(alg, enc);
-        Payload payload = new Payload(oid4vciCredentialJson);
-        JWEObject jwe = new JWEObject(header, payload);
-        JWEEncrypter encryptor = guardedCreateEncrypter(holderPublicKey, cek);
-        return encrypt(jwe, encryptor);
-
-    }
-
-    private String encrypt(JWEObject jwe, JWEEncrypter encryptor) {
-        try {
-            jwe.encrypt(encryptor);
-            return jwe.serialize();
-        } catch (JOSEException e) {
-            throw new Oid4vcException(e, INVALID_ENCRYPTION_PARAMETERS,
-                    "Encryption was not possible with the provided parameters - " + e.getMessage()
-            );
+            resolved.put(alg, Map.copyOf(byEnc));
         }
+        return Map.copyOf(resolved);
     }
 }
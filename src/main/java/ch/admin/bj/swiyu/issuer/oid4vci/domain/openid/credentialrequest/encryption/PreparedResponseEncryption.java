@@ -0,0 +1,73 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.Oid4vcException;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEEncrypter;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.util.Base64URL;
+
+import static ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialRequestError.INVALID_ENCRYPTION_PARAMETERS;
+
+/**
+ * Encryption of one credential response, validated against the holder key before the credential is created.
+ */
+public final class PreparedResponseEncryption {
+
+    private final JWEHeader header;
+    private final JWEEncrypter encrypter;
+
+    PreparedResponseEncryption(JWEHeader header, JWEEncrypter encrypter) {
+        this.header = header;
+        this.encrypter = encrypter;
+    }
+
+    /**
+     * @param oid4vciCredentialJson the UTF-8 encoded credential response, used by the encryption without copying it
+     * @return the compact serialization of the encrypted response as ASCII bytes
+     */
+    public byte[] encrypt(byte[] oid4vciCredentialJson) {
+        var jwe = new JWEObject(header, new Payload(oid4vciCredentialJson));
+        try {
+            jwe.encrypt(encrypter);
+        } catch (JOSEException e) {
+            throw new Oid4vcException(e, INVALID_ENCRYPTION_PARAMETERS,
+                    "Encryption was not possible with the provided parameters - " + e.getMessage()
+            );
+        }
+        return serialize(jwe.getHeader().toBase64URL(), jwe.getEncryptedKey(), jwe.getIV(), jwe.getCipherText(), jwe.getAuthTag());
+    }
+
+    /**
+     * Writes the parts of the compact serialization into a single array, instead of concatenating them into a String first.
+     * Nimbus provides the parts as base64url Strings, so each character is converted once, directly into the array.
+     */
+    private static byte[] serialize(Base64URL... parts) {
+        int length = parts.length - 1;
+        for (Base64URL part : parts) {
+            length += part == null ? 0 : part.toString().length();
+        }
+        var serialized = new byte[length];
+        int position = 0;
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                serialized[position++] = '.';
+            }
+            if (parts[i] != null) {
+                var encoded = parts[i].toString();
+                // base64url only consists of ASCII characters
+                for (int j = 0; j < encoded.length(); j++) {
+                    serialized[position++] = (byte) encoded.charAt(j);
+                }
+            }
+        }
+        return serialized;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.Oid4vcException;
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEEncrypter;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.crypto.ECDHEncrypter;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyType;
+import lombok.Getter;
+
+import javax.crypto.KeyGenerator;
+import java.security.NoSuchAlgorithmException;
+
+import static ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialRequestError.INVALID_ENCRYPTION_PARAMETERS;
+
+/**
+ * Ready to use encryption setup for one alg / enc combination offered in the issuer metadata.
+ * Everything not depending on the holder key is resolved once.
+ */
+@Getter
+final class ResponseEncryptionStrategy {
+
+    private final JWEAlgorithm alg;
+    private final EncryptionMethod enc;
+    private final JWEHeader header;
+    private final KeyType keyType;
+    /**
+     * Generators for the content encryption keys, initialized for the key length of enc
+     */
+    private final ThreadLocal<KeyGenerator> keyGenerators;
+
+    private ResponseEncryptionStrategy(JWEAlgorithm alg, EncryptionMethod enc, KeyType keyType) {
+        this.alg = alg;
+        this.enc = enc;
+        this.header = new JWEHeader(alg, enc);
+        this.keyType = keyType;
+        this.keyGenerators = ThreadLocal.withInitial(this::createKeyGenerator);
+        // Fail on startup if no key generator is available
+        this.keyGenerators.get();
+    }
+
+    /**
+     * @param alg key management algorithm as named in the issuer metadata
+     * @param enc content encryption method as named in the issuer metadata
+     * @return the strategy for the combination
+     * @throws ConfigurationException if the combination is not supported
+     */
+    static ResponseEncryptionStrategy resolve(String alg, String enc) {
+        var jweAlgorithm = JWEAlgorithm.parse(alg);
+        var encryptionMethod = EncryptionMethod.parse(enc);
+        if (encryptionMethod.cekBitLength() == 0) {
+            throw new ConfigurationException(String.format("Unsupported credential response encryption method %s", enc));
+        }
+        if (JWEAlgorithm.Family.RSA.contains(jweAlgorithm)) {
+            return new ResponseEncryptionStrategy(jweAlgorithm, encryptionMethod, KeyType.RSA);
+        }
+        if (JWEAlgorithm.Family.ECDH_ES.contains(jweAlgorithm) && !JWEAlgorithm.ECDH_ES.equals(jweAlgorithm)) {
+            return new ResponseEncryptionStrategy(jweAlgorithm, encryptionMethod, KeyType.EC);
+        }
+        throw new ConfigurationException(String.format("Unsupported credential response encryption algorithm %s", alg));
+    }
+
+    /**
+     * Creates the encrypter for the holder key with a fresh content encryption key
+     *
+     * @throws Oid4vcException if the key can not be used with this strategy
+     */
+    JWEEncrypter createEncrypter(JWK holderKey) {
+        if (holderKey.getKeyType() != keyType) {
+            throw new Oid4vcException(INVALID_ENCRYPTION_PARAMETERS,
+                    String.format("Mismatch between specified encryption algorithm, encryption & provided key - %s requires kty %s", alg, keyType));
+        }
+        var cek = keyGenerators.get().generateKey();
+        try {
+            if (keyType == KeyType.RSA) {
+                return new RSAEncrypter(holderKey.toRSAKey().toRSAPublicKey(), cek);
+            }
+            return new ECDHEncrypter(holderKey.toECKey().toECPublicKey(), cek);
+        } catch (JOSEException e) {
+            throw new Oid4vcException(e,
+                    INVALID_ENCRYPTION_PARAMETERS,
+                    "Mismatch between specified encryption algorithm, encryption & provided key - " + e.getMessage()
+            );
+        }
+    }
+
+    private KeyGenerator createKeyGenerator() {
+        try {
+            var keyGenerator = KeyGenerator.getInstance("AES");
+            keyGenerator.init(enc.cekBitLength());
+            return keyGenerator;
+        } catch (NoSuchAlgorithmException e) {
+            throw new ConfigurationException("No Key generator found algorithm");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+
+/**
+ * Bounded least recently used cache of decoded holder keys.
+ * <p>
+ * Wallets usually retry with the same key, so the public key and its verifier are kept,
+ * instead of decoding the did:jwk and building a verifier for every proof.
+ * Only successfully decoded keys are cached. The entries are stored by the SHA-256 digest of their cache key,
+ * as the key id in the proof is chosen by the wallet and may be arbitrarily long.
+ * </p>
+ */
+class HolderKeyCache {
+
+    private final Map<String, HolderKey> holderKeys;
+
+    HolderKeyCache(int maxSize) {
+        this.holderKeys = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HolderKey> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    HolderKey get(String cacheKey) {
+        return holderKeys.get(digest(cacheKey));
+    }
+
+    HolderKey put(String cacheKey, ECKey key) throws JOSEException {
+        var holderKey = HolderKey.of(key);
+        holderKeys.put(digest(cacheKey), holderKey);
+        return holderKey;
+    }
+
+    void remove(String cacheKey) {
+        holderKeys.remove(digest(cacheKey));
+    }
+
+    private static String digest(String cacheKey) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(cacheKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param publicKey the holder's public key
+     * @param verifier  verifier for signatures of the holder, safe to be shared between threads
+     */
+    record HolderKey(ECKey publicKey, JWSVerifier verifier) {
+
+        static HolderKey of(ECKey key) throws JOSEException {
+            var publicKey = key.toPublicJWK();
+            return new HolderKey(publicKey, new ECDSAVerifier(publicKey));
+        }
+    }
+}
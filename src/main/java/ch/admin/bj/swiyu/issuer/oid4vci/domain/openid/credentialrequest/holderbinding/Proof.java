@@ -7,17 +7,34 @@
 package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding;
 
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
+import com.nimbusds.jose.jwk.JWK;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 @AllArgsConstructor
 @Getter
 public abstract class Proof {
     public final ProofType proofType;
 
-    public abstract boolean isValidHolderBinding(String issuerId, List<String> supportedSigningAlgorithms, CredentialOffer offer);
+    public boolean isValidHolderBinding(String issuerId, List<String> supportedSigningAlgorithms, CredentialOffer offer) {
+        return isValidHolderBinding(issuerId, supportedSigningAlgorithms, offer, nonce -> false);
+    }
 
-    public abstract String getBinding();
+    /**
+     * @param selfContainedNonceValidator accepts nonces which are not bound to the offer, e.g. issued by the nonce endpoint
+     */
+    public abstract boolean isValidHolderBinding(String issuerId, List<String> supportedSigningAlgorithms, CredentialOffer offer, Predicate<String> selfContainedNonceValidator);
+
+    /**
+     * @return the holder's public key the credential is to be bound to, available after a successful validation
+     */
+    public abstract JWK getBinding();
+
+    /**
+     * @return key identifying the proof for replay protection
+     */
+    public abstract byte[] getReplayKey();
 }
@@ -6,9 +6,13 @@
 
 package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialRequestError;
@@ -16,16 +20,22 @@ import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.Oid4vcException;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.JWSVerifier;
-import com.nimbusds.jose.crypto.ECDSAVerifier;
 import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jwt.SignedJWT;
 
 public class ProofJwt extends Proof {
 
+    private static final Pattern DID_METHOD_PATTERN = Pattern.compile("did:[a-z]+(?=:.+)");
+    private static final HolderKeyCache HOLDER_KEY_CACHE = new HolderKeyCache(1024);
+    /**
+     * A did:jwk of a P-256 key with kid, use and alg members is about 300 characters long
+     */
+    private static final int MAX_CACHED_KID_LENGTH = 1024;
+
     private final String jwt;
     private final int acceptableProofTimeWindowSeconds;
-    private String holderKeyJson;
+    private ECKey holderKey;
 
     public ProofJwt(ProofType proofType, String jwt) {
         this(proofType, jwt, 10);
@@ -41,7 +51,7 @@ public class ProofJwt extends Proof {
      * Validates the Proof JWT according to <a href="https://openid.net/specs/openid-4-verifiable-credential-issuance-1_0-ID1.html#section-7.2.1.1">OID4VCI 7.2.1.1</a>
      */
     @Override
-    public boolean isValidHolderBinding(String issuerId, List<String> supportedSigningAlgorithms, CredentialOffer offer) {
+    public boolean isValidHolderBinding(String issuerId, List<String> supportedSigningAlgorithms, CredentialOffer offer, Predicate<String> selfContainedNonceValidator) {
 
         try {
             SignedJWT signedJWT = SignedJWT.parse(this.jwt);
@@ -79,15 +89,16 @@ public class ProofJwt extends Proof {
                 throw proofException(String.format("Holder Binding proof was not issued at an acceptable time. Expected %d +/- %d seconds", now.getEpochSecond(), acceptableProofTimeWindowSeconds));
             }
 
-            ECKey holderKey = getNormalizedECKey(header);
-            JWSVerifier verifier = new ECDSAVerifier(holderKey);
-            if (!signedJWT.verify(verifier)) {
+            var normalizedHolderKey = getNormalizedHolderKey(header);
+            if (!signedJWT.verify(normalizedHolderKey.verifier())) {
                 throw proofException("Proof JWT is not valid!");
             }
 
             // the nonce claim matches the server-provided c_nonce value, if the server had previously provided a c_nonce,
+            // either with the token of the offer or by the nonce endpoint
             var nonce = offer.getNonce().toString();
-            if (nonce != null && !nonce.equals(signedJWT.getJWTClaimsSet().getStringClaim("nonce"))) {
+            var proofNonce = claimSet.getStringClaim("nonce");
+            if (nonce != null && !nonce.equals(proofNonce) && !selfContainedNonceValidator.test(proofNonce)) {
                 throw proofException("Nonce claim does not match the server-provided c_nonce value");
             }
 
@@ -95,7 +106,7 @@ public class ProofJwt extends Proof {
                 throw proofException("Token is expired");
             }
 
-            this.holderKeyJson = holderKey.toJSONString();
+            this.holderKey = normalizedHolderKey.publicKey();
 
         } catch (ParseException e) {
             throw proofException("Provided Proof JWT is not parseable; " + e.getMessage());
@@ -107,8 +118,24 @@ public class ProofJwt extends Proof {
     }
 
     @Override
-    public String getBinding() {
-        return this.holderKeyJson;
+    public ECKey getBinding() {
+        return this.holderKey;
+    }
+
+    /**
+     * The sha-256 digest of header and payload of the proof JWT.
+     * The signature is left out, as ECDSA signatures are malleable. Header and payload are covered by the signature,
+     * so they can not be altered without invalidating the proof.
+     */
+    @Override
+    public byte[] getReplayKey() {
+        int signatureStart = this.jwt.lastIndexOf('.');
+        String signedContent = signatureStart < 0 ? this.jwt : this.jwt.substring(0, signatureStart);
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(signedContent.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     private static Oid4vcException proofException(String errorDescription) {
@@ -118,32 +145,67 @@ public class ProofJwt extends Proof {
     /**
      * Gets the ECKey from either kid with did or the cnf entry
      *
-     * @return the Holder's ECKey
+     * @return the Holder's ECKey with the verifier for its signatures
      */
-    private ECKey getNormalizedECKey(JWSHeader header) {
+    private HolderKeyCache.HolderKey getNormalizedHolderKey(JWSHeader header) throws JOSEException {
         var kid = header.getKeyID();
 
         // Public key present as did
         if (kid != null && kid.startsWith("did:")) {
-            var didMatcher = Pattern.compile("did:[a-z]+(?=:.+)").matcher(kid);
-            if (didMatcher.find() && !didMatcher.group().equals("did:jwk")) {
-                throw proofException(String.format("Did method provided in kid attribute %s is not supported", didMatcher.group()));
-            }
-            if (didMatcher.group().equals("did:jwk")) {
+            var didMatcher = DID_METHOD_PATTERN.matcher(kid);
+            if (didMatcher.find()) {
+                if (!didMatcher.group().equals("did:jwk")) {
+                    throw proofException(String.format("Did method provided in kid attribute %s is not supported", didMatcher.group()));
+                }
+                var holderKey = HOLDER_KEY_CACHE.get(kid);
+                if (holderKey != null) {
+                    return holderKey;
+                }
+                ECKey key;
                 try {
-                    return DidJwk.createFromDidJwk(kid).getJWK().toECKey();
-                } catch (ParseException e) {
+                    key = toECKey(DidJwk.createFromDidJwk(kid).getJWK());
+                } catch (ParseException | IllegalArgumentException e) {
                     throw proofException(String.format("kid property %s could not be parsed to a JWK", kid));
                 }
+                // A did:jwk this long carries further members than the key, it is not kept in the cache
+                return kid.length() <= MAX_CACHED_KID_LENGTH ? HOLDER_KEY_CACHE.put(kid, key) : HolderKeyCache.HolderKey.of(key);
             }
         }
 
         // Public key is present as jwk
         if (header.getJWK() != null) {
-            return header.getJWK().toECKey();
+            var jwk = toECKey(header.getJWK());
+            var cacheKey = jwkCacheKey(jwk);
+            var holderKey = HOLDER_KEY_CACHE.get(cacheKey);
+            if (holderKey == null) {
+                holderKey = HOLDER_KEY_CACHE.put(cacheKey, jwk);
+            }
+            // Only the verifier is shared, the cache key leaves out members like kid and use of the key sent with this proof
+            return new HolderKeyCache.HolderKey(jwk.toPublicJWK(), holderKey.verifier());
         }
 
         // No public key present which the current system supports
         throw proofException(String.format("None of the supported binding method/s was found in the header %s", header));
     }
+
+    /**
+     * Removes a holder key sent as jwk in the proof header from the cache of decoded holder keys,
+     * for keys which are known to never be used again
+     *
+     * @param jwk the holder's key
+     */
+    public static void evictHolderKey(ECKey jwk) {
+        HOLDER_KEY_CACHE.remove(jwkCacheKey(jwk));
+    }
+
+    private static String jwkCacheKey(ECKey jwk) {
+        return String.format("jwk:%s:%s:%s", jwk.getCurve(), jwk.getX(), jwk.getY());
+    }
+
+    private static ECKey toECKey(JWK jwk) {
+        if (!(jwk instanceof ECKey ecKey)) {
+            throw proofException(String.format("Key type %s is not supported for holder binding", jwk.getKeyType()));
+        }
+        return ecKey;
+    }
 }
@@ -0,0 +1,31 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding;
+
+import java.time.Instant;
+
+/**
+ * Remembers holder binding proofs which have already been used, for as long as they could be accepted.
+ * Proofs are identified by their {@link Proof#getReplayKey() replay key}.
+ */
+public interface ProofReplayCache {
+
+    /**
+     * @param replayKey key identifying the proof
+     * @return true if the proof has already been used and is not expired yet
+     */
+    boolean isKnown(byte[] replayKey);
+
+    /**
+     * Registers the proof as used, if it has not been used yet.
+     *
+     * @param replayKey key identifying the proof
+     * @param expiresAt point in time after which the proof will not be accepted anymore
+     * @return true if the proof was registered, false if it has already been used
+     */
+    boolean markAsUsed(byte[] replayKey, Instant expiresAt);
+}
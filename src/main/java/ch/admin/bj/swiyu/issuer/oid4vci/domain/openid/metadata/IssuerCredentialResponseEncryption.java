@@ -6,7 +6,6 @@
 
 package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata;
 
-import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialResponseEncryption;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
@@ -29,9 +28,4 @@ public class IssuerCredentialResponseEncryption {
     @JsonProperty("encryption_required")
     @NotNull
     private boolean encRequired;
-
-    public boolean contains(CredentialResponseEncryption requestedEncryption) {
-        return algValuesSupported.contains(requestedEncryption.getAlg())
-                && encValuesSupported.contains(requestedEncryption.getEnc());
-    }
 }
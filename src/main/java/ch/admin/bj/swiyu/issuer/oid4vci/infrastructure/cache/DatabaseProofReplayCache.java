@@ -0,0 +1,82 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.cache;
+
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofReplayCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Proof replay cache shared by all instances of the issuer agent through the issuer agent database.
+ * <p>
+ * The unique key of the table decides atomically which request gets to use a proof, also across pods.
+ * Expired proofs are removed at most once per minute by whichever instance registers a proof.
+ * </p>
+ * <p>
+ * The issuer agent management is owner of the schema, the table {@code proof_replay_cache} has to be created there,
+ * see {@code scripts/proof_replay_cache.sql}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "application.proof-replay-cache.type", havingValue = "database")
+@Slf4j
+public class DatabaseProofReplayCache implements ProofReplayCache {
+
+    private static final long CLEANUP_INTERVAL_SECONDS = 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicLong nextCleanup = new AtomicLong();
+
+    public DatabaseProofReplayCache(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Fails the startup if the table is missing, instead of failing every credential request with holder binding
+     */
+    @PostConstruct
+    public void verifyTable() {
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM proof_replay_cache WHERE 1 = 0", Integer.class);
+        } catch (DataAccessException e) {
+            throw new ConfigurationException(String.format("Table proof_replay_cache required by PROOF_REPLAY_CACHE_TYPE=database is not accessible, "
+                    + "it has to be created in the schema of the issuer agent management: %s", e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    @Override
+    public boolean isKnown(byte[] replayKey) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM proof_replay_cache WHERE replay_key = ? AND expires_at > ?",
+                Integer.class, HexFormat.of().formatHex(replayKey), Instant.now().getEpochSecond());
+        return count != null && count > 0;
+    }
+
+    @Override
+    public boolean markAsUsed(byte[] replayKey, Instant expiresAt) {
+        long now = Instant.now().getEpochSecond();
+        removeExpired(now);
+        return jdbcTemplate.update("INSERT INTO proof_replay_cache (replay_key, expires_at) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                HexFormat.of().formatHex(replayKey), expiresAt.getEpochSecond()) > 0;
+    }
+
+    private void removeExpired(long now) {
+        long due = nextCleanup.get();
+        if (now >= due && nextCleanup.compareAndSet(due, now + CLEANUP_INTERVAL_SECONDS)) {
+            int removed = jdbcTemplate.update("DELETE FROM proof_replay_cache WHERE expires_at <= ?", now);
+            log.debug("Removed {} expired proofs from the replay cache", removed);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ProofReplayCacheProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofReplayCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Proof replay cache held in primitive arrays with a fixed size.
+ * <p>
+ * Proofs are stored as 64-bit fingerprints of their replay key together with their expiration in epoch seconds,
+ * in open addressing tables split into stripes with their own lock. Only a bounded number of slots is probed,
+ * expired slots are reused, and when all probed slots are in use the one closest to its expiration is evicted.
+ * The memory used therefore never grows beyond the configured maximum number of entries.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "application.proof-replay-cache.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProofReplayCache implements ProofReplayCache {
+
+    private static final int STRIPE_COUNT = 16;
+    private static final int MAX_PROBES = 16;
+
+    private final Stripe[] stripes;
+
+    public InMemoryProofReplayCache(ProofReplayCacheProperties properties) {
+        int slotsPerStripe = Integer.highestOneBit(Math.max(MAX_PROBES, properties.getMaxEntries() / STRIPE_COUNT) - 1) << 1;
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            this.stripes[i] = new Stripe(slotsPerStripe);
+        }
+    }
+
+    @Override
+    public boolean isKnown(byte[] replayKey) {
+        long fingerprint = fingerprint(replayKey);
+        return stripeOf(fingerprint).contains(fingerprint, Instant.now().getEpochSecond());
+    }
+
+    @Override
+    public boolean markAsUsed(byte[] replayKey, Instant expiresAt) {
+        long fingerprint = fingerprint(replayKey);
+        return stripeOf(fingerprint).add(fingerprint, expiresAt.getEpochSecond(), Instant.now().getEpochSecond());
+    }
+
+    int capacity() {
+        return stripes.length * stripes[0].keys.length;
+    }
+
+    private Stripe stripeOf(long fingerprint) {
+        return stripes[(int) (fingerprint & (STRIPE_COUNT - 1))];
+    }
+
+    /**
+     * 0 marks an empty slot and is therefore never used as fingerprint
+     */
+    private static long fingerprint(byte[] replayKey) {
+        long fingerprint = ByteBuffer.wrap(replayKey).getLong();
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    private static final class Stripe {
+        private final long[] keys;
+        private final long[] expirations;
+        private final int mask;
+
+        Stripe(int size) {
+            this.keys = new long[size];
+            this.expirations = new long[size];
+            this.mask = size - 1;
+        }
+
+        synchronized boolean contains(long fingerprint, long now) {
+            int start = slotOf(fingerprint);
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (start + i) & mask;
+                if (keys[slot] == fingerprint && expirations[slot] > now) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean add(long fingerprint, long expiresAt, long now) {
+            int start = slotOf(fingerprint);
+            int target = -1;
+            int oldest = start;
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (start + i) & mask;
+                boolean expired = expirations[slot] <= now;
+                if (keys[slot] == fingerprint && !expired) {
+                    return false;
+                }
+                if (target < 0 && expired) {
+                    target = slot;
+                }
+                if (expirations[slot] < expirations[oldest]) {
+                    oldest = slot;
+                }
+            }
+            if (target < 0) {
+                target = oldest;
+            }
+            keys[target] = fingerprint;
+            expirations[target] = expiresAt;
+            return true;
+        }
+
+        private int slotOf(long fingerprint) {
+            return (int) (fingerprint >>> 32) & mask;
+        }
+    }
+}
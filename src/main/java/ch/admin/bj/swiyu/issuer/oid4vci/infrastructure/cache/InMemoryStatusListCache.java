@@ -0,0 +1,45 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.cache;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.DecodedStatusListCache;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusList;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListBitstring;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the latest decoded version of every status list on the heap
+ */
+@Component
+@ConditionalOnProperty(name = "application.status-list-cache.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryStatusListCache implements DecodedStatusListCache {
+
+    private final Map<UUID, CachedBitstring> bitstrings = new ConcurrentHashMap<>();
+
+    @Override
+    public StatusListBitstring getBitstring(StatusList statusList) throws IOException {
+        var version = StatusListCodec.fingerprint(statusList.getStatusZipped());
+        var cached = bitstrings.get(statusList.getId());
+        if (cached != null && cached.version().equals(version)) {
+            return cached.bitstring();
+        }
+        var bitstring = StatusListBitstring.fromBytes(statusList.getBits(),
+                StatusListCodec.decode(statusList.getStatusZipped(), StatusListCodec.DEFAULT_MAX_DECODED_SIZE));
+        bitstrings.put(statusList.getId(), new CachedBitstring(version, bitstring));
+        return bitstring;
+    }
+
+    private record CachedBitstring(String version, StatusListBitstring bitstring) {
+    }
+}
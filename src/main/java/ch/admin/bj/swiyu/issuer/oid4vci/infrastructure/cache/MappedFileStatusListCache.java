@@ -0,0 +1,204 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.cache;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipException;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.StatusListCacheProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.DecodedStatusListCache;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusList;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListBitstring;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps decoded status lists in memory mapped files named after the id and version of the status list.
+ * <p>
+ * The bitstrings work directly on the mapped words, so the status lists live in the page cache instead of the heap
+ * and reading them neither inflates nor copies them. Files are written to a temporary file first and moved into place
+ * atomically, so instances sharing the directory never map a partially written file. Files of a previous run are
+ * mapped again without decoding the status list, as long as the status list did not change.
+ * </p>
+ * <p>
+ * File layout: magic, bits and byte length of the status list as big endian ints followed by 4 reserved bytes,
+ * then the words of the status list in little endian order.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "application.status-list-cache.type", havingValue = "mapped-file")
+@Slf4j
+public class MappedFileStatusListCache implements DecodedStatusListCache {
+
+    private static final int MAGIC = 0x534c4231; // SLB1
+    private static final int HEADER_SIZE = 16;
+    private static final String FILE_SUFFIX = ".bits";
+
+    private final Path directory;
+    private final Map<UUID, CachedBitstring> bitstrings = new ConcurrentHashMap<>();
+
+    public MappedFileStatusListCache(StatusListCacheProperties properties) {
+        this.directory = properties.getDirectory().isBlank()
+                ? Path.of(System.getProperty("java.io.tmpdir"), "status-list-cache")
+                : Path.of(properties.getDirectory());
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new ConfigurationException(String.format("Status list cache directory %s can not be created: %s", directory, e.getMessage()));
+        }
+    }
+
+    @Override
+    public StatusListBitstring getBitstring(StatusList statusList) throws IOException {
+        var version = StatusListCodec.fingerprint(statusList.getStatusZipped());
+        var cached = bitstrings.get(statusList.getId());
+        if (cached != null && cached.version().equals(version)) {
+            return cached.bitstring();
+        }
+        var file = directory.resolve(statusList.getId() + "-" + version + FILE_SUFFIX);
+        var bitstring = map(file, statusList.getBits());
+        if (bitstring == null) {
+            write(statusList, file);
+            bitstring = map(file, statusList.getBits());
+            if (bitstring == null) {
+                throw new IOException(String.format("Status list cache file %s is invalid", file));
+            }
+        }
+        bitstrings.put(statusList.getId(), new CachedBitstring(version, bitstring));
+        deleteOtherVersions(statusList.getId(), file);
+        return bitstring;
+    }
+
+    /**
+     * @return the bitstring on the mapped file or null if there is no valid file
+     */
+    private StatusListBitstring map(Path file, int bits) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != bits) {
+            log.warn("Ignoring invalid status list cache file {}", file);
+            return null;
+        }
+        int byteLength = buffer.getInt(8);
+        int wordCount = StatusListBitstring.wordCount(byteLength);
+        if (byteLength < 0 || buffer.capacity() != HEADER_SIZE + (long) wordCount * Long.BYTES) {
+            log.warn("Ignoring truncated status list cache file {}", file);
+            return null;
+        }
+        var words = buffer.slice(HEADER_SIZE, wordCount * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        return StatusListBitstring.wrap(bits, byteLength, words);
+    }
+
+    private void write(StatusList statusList, Path file) throws IOException {
+        var temporaryFile = inflateIntoTemporaryFile(statusList);
+        if (temporaryFile == null) {
+            temporaryFile = decodeIntoTemporaryFile(statusList);
+        }
+        try {
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Wrote status list cache file {}", file);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Inflates the status list straight into the mapped file, which is sized by the number of entries of the status list.
+     * The bytes of the status list are the words in little endian order, and the padding of the last word stays zero.
+     *
+     * @return the written file or null if the status list does not have the size of its entries or can not be inflated,
+     * it is then decoded on the heap which also reports invalid status lists
+     */
+    private Path inflateIntoTemporaryFile(StatusList statusList) throws IOException {
+        if (statusList.getMaxLength() == null) {
+            return null;
+        }
+        long byteLength = ((long) statusList.getMaxLength() * statusList.getBits() + Byte.SIZE - 1) / Byte.SIZE;
+        if (byteLength > StatusListCodec.DEFAULT_MAX_DECODED_SIZE) {
+            throw new IOException(String.format("Status list %s exceeds the maximum size of %d bytes", statusList.getId(), StatusListCodec.DEFAULT_MAX_DECODED_SIZE));
+        }
+        var temporaryFile = Files.createTempFile(directory, statusList.getId().toString(), ".tmp");
+        boolean complete = false;
+        try (var channel = FileChannel.open(temporaryFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = mapForWriting(channel, statusList.getBits(), (int) byteLength);
+            int decodedLength = StatusListCodec.decode(statusList.getStatusZipped(), buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+            if (decodedLength == byteLength) {
+                buffer.force();
+                complete = true;
+            }
+        } catch (ZipException e) {
+            log.debug("Status list {} could not be inflated into {}: {}", statusList.getId(), temporaryFile, e.getMessage());
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+        return complete ? temporaryFile : null;
+    }
+
+    private Path decodeIntoTemporaryFile(StatusList statusList) throws IOException {
+        var decoded = StatusListBitstring.fromBytes(statusList.getBits(),
+                StatusListCodec.decode(statusList.getStatusZipped(), StatusListCodec.DEFAULT_MAX_DECODED_SIZE));
+        var temporaryFile = Files.createTempFile(directory, statusList.getId().toString(), ".tmp");
+        try (var channel = FileChannel.open(temporaryFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = mapForWriting(channel, decoded.getBits(), decoded.getByteLength());
+            decoded.writeWords(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+            buffer.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+        return temporaryFile;
+    }
+
+    /**
+     * @return the mapped file with the header written, large enough for the words of the status list
+     */
+    private static MappedByteBuffer mapForWriting(FileChannel channel, int bits, int byteLength) throws IOException {
+        long size = HEADER_SIZE + (long) StatusListBitstring.wordCount(byteLength) * Long.BYTES;
+        var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(0, MAGIC).putInt(4, bits).putInt(8, byteLength).putInt(12, 0);
+        return buffer;
+    }
+
+    /**
+     * Mappings of deleted files stay valid until they are garbage collected
+     */
+    private void deleteOtherVersions(UUID statusListId, Path current) {
+        try (var files = Files.newDirectoryStream(directory, statusListId + "-*" + FILE_SUFFIX)) {
+            for (var file : files) {
+                if (!file.equals(current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete outdated status list cache files of {}", statusListId, e);
+        }
+    }
+
+    private record CachedBitstring(String version, StatusListBitstring bitstring) {
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.actuator;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.DeferredSigner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the signing key, part of the readiness group.
+ * The instance only reports to be ready once the key has been loaded from the HSM.
+ */
+@Component("signer")
+@RequiredArgsConstructor
+public class SignerHealthIndicator implements HealthIndicator {
+
+    private final DeferredSigner signer;
+
+    @Override
+    public Health health() {
+        var health = signer.isReady()
+                ? Health.up()
+                : signer.getFailure().map(failure -> Health.down().withDetail("error", failure.getClass().getName()))
+                .orElseGet(Health::outOfService);
+        return health.withDetail("keyManagementMethod", signer.getKeyManagementMethod()).build();
+    }
+}
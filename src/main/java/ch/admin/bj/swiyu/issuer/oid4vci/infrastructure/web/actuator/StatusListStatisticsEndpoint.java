@@ -0,0 +1,57 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.actuator;
+
+import java.util.List;
+import java.util.UUID;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.api.StatusListIndicesDto;
+import ch.admin.bj.swiyu.issuer.oid4vci.api.StatusListStatisticsDto;
+import ch.admin.bj.swiyu.issuer.oid4vci.service.StatusListStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint exposing the status counts of the status lists, eg. for revocation ratio dashboards.
+ * <ul>
+ *     <li>/actuator/statuslists: counts of all status lists</li>
+ *     <li>/actuator/statuslists/{id}: counts of one status list</li>
+ *     <li>/actuator/statuslists/{id}/{status}?from=0&amp;limit=1000: indices having the status</li>
+ * </ul>
+ * The endpoint decodes whole status lists per request, so it only exists if it is enabled and the monitoring
+ * endpoints are protected by basic auth.
+ */
+@Component
+@ConditionalOnProperty(name = {"monitoring.status-lists-endpoint.enabled", "monitoring.basic-auth.enabled"}, havingValue = "true")
+@Endpoint(id = "statuslists")
+@RequiredArgsConstructor
+public class StatusListStatisticsEndpoint {
+
+    private final StatusListStatisticsService statusListStatisticsService;
+
+    @ReadOperation
+    public List<StatusListStatisticsDto> statusLists() {
+        return statusListStatisticsService.getStatistics();
+    }
+
+    @ReadOperation
+    public StatusListStatisticsDto statusList(@Selector UUID id) {
+        return statusListStatisticsService.getStatistics(id).orElse(null);
+    }
+
+    @ReadOperation
+    public StatusListIndicesDto indices(@Selector UUID id, @Selector int status, @Nullable Integer from, @Nullable Integer limit) {
+        return statusListStatisticsService.getIndicesWithStatus(id, status,
+                from != null ? from : 0,
+                limit != null ? limit : StatusListStatisticsService.DEFAULT_INDEX_LIMIT).orElse(null);
+    }
+}
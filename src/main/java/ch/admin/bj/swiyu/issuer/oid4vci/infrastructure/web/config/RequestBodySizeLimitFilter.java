@@ -0,0 +1,137 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.config;
+
+import java.io.IOException;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.api.ApiErrorDto;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rejects request bodies larger than {@link ApplicationProperties#getMaxRequestBodySize()}.
+ * <p>
+ * Requests announcing a larger Content-Length are answered with 413 without reading the body.
+ * Bodies without Content-Length are cut off once the limit is exceeded, which fails their parsing.
+ * </p>
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@Component
+@Slf4j
+class RequestBodySizeLimitFilter extends OncePerRequestFilter {
+
+    private final long maxRequestBodySize;
+    private final ObjectMapper objectMapper;
+
+    RequestBodySizeLimitFilter(ApplicationProperties applicationProperties, ObjectMapper objectMapper) {
+        this.maxRequestBodySize = applicationProperties.getMaxRequestBodySize();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (request.getContentLengthLong() > maxRequestBodySize) {
+            log.info("Rejected request to {} with a body of {} bytes", request.getRequestURI(), request.getContentLengthLong());
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new ApiErrorDto(HttpStatus.PAYLOAD_TOO_LARGE,
+                    String.format("Request body must not be larger than %d bytes", maxRequestBodySize)));
+            return;
+        }
+        if (request.getContentLengthLong() < 0) {
+            filterChain.doFilter(new SizeLimitedRequest(request, maxRequestBodySize), response);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static final class SizeLimitedRequest extends HttpServletRequestWrapper {
+
+        private final long limit;
+        private ServletInputStream inputStream;
+
+        SizeLimitedRequest(HttpServletRequest request, long limit) {
+            super(request);
+            this.limit = limit;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new SizeLimitedInputStream(super.getInputStream(), limit);
+            }
+            return inputStream;
+        }
+    }
+
+    private static final class SizeLimitedInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private long remaining;
+
+        SizeLimitedInputStream(ServletInputStream delegate, long limit) {
+            this.delegate = delegate;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            if (read > 0) {
+                consume(read);
+            }
+            return read;
+        }
+
+        private void consume(int bytes) throws IOException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new IOException("Request body exceeds the maximum size");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.controller;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.OAuthException;
+import ch.admin.bj.swiyu.issuer.oid4vci.service.AccessToken;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Extracts the access token from an Authorization header using the bearer scheme
+ * <a href="https://www.rfc-editor.org/rfc/rfc6750#section-2.1">RFC 6750 2.1</a>.
+ */
+@UtilityClass
+class BearerTokenParser {
+
+    private static final String BEARER_SCHEME = "bearer";
+
+    /**
+     * @param authorizationHeader value of the Authorization header, the scheme is matched case-insensitive
+     * @return the access token following the scheme
+     * @throws OAuthException if there is no header or it does not contain a bearer token
+     */
+    static AccessToken parse(String authorizationHeader) {
+        if (authorizationHeader == null) {
+            throw OAuthException.invalidRequest("No authorization header found");
+        }
+        int schemeEnd = BEARER_SCHEME.length();
+        if (authorizationHeader.length() <= schemeEnd
+                || !authorizationHeader.regionMatches(true, 0, BEARER_SCHEME, 0, schemeEnd)
+                || authorizationHeader.charAt(schemeEnd) != ' ') {
+            throw OAuthException.invalidRequest("No bearer token found");
+        }
+        int tokenStart = schemeEnd + 1;
+        while (tokenStart < authorizationHeader.length() && authorizationHeader.charAt(tokenStart) == ' ') {
+            tokenStart++;
+        }
+        int tokenEnd = authorizationHeader.length();
+        while (tokenEnd > tokenStart && authorizationHeader.charAt(tokenEnd - 1) == ' ') {
+            tokenEnd--;
+        }
+        if (tokenStart == tokenEnd) {
+            throw OAuthException.invalidRequest("No bearer token found");
+        }
+        return AccessToken.of(authorizationHeader.substring(tokenStart, tokenEnd));
+    }
+}
@@ -4,9 +4,12 @@ import ch.admin.bj.swiyu.issuer.oid4vci.service.CredentialMetadataService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -18,18 +21,21 @@ public class CredentialMetadataController {
     private CredentialMetadataService credentialMetadataService;
 
     @GetMapping(path = "vct/{metadataKey}", produces = {MediaType.APPLICATION_JSON_VALUE})
-    public String getCredentialTypeMetadata(@PathVariable String metadataKey) {
-        return credentialMetadataService.getCredentialTypeMetadata(metadataKey);
+    public ResponseEntity<byte[]> getCredentialTypeMetadata(@PathVariable String metadataKey,
+                                                            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return MetadataResponses.of(credentialMetadataService.getCredentialTypeMetadata(metadataKey), acceptEncoding);
     }
 
     @GetMapping(path = "json-schema/{schemaKey}", produces = {"application/schema+json"})
-    public String getJsonSchema(@PathVariable String schemaKey) {
-        return credentialMetadataService.getJsonSchema(schemaKey);
+    public ResponseEntity<byte[]> getJsonSchema(@PathVariable String schemaKey,
+                                                @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return MetadataResponses.of(credentialMetadataService.getJsonSchema(schemaKey), acceptEncoding);
     }
 
     @GetMapping(path = "oca/{ocaKey}", produces = {MediaType.APPLICATION_JSON_VALUE})
-    public String getOverlaysCaptureArchitecture(@PathVariable String ocaKey) {
-        return credentialMetadataService.getOverlaysCaptureArchitecture(ocaKey);
+    public ResponseEntity<byte[]> getOverlaysCaptureArchitecture(@PathVariable String ocaKey,
+                                                                 @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return MetadataResponses.of(credentialMetadataService.getOverlaysCaptureArchitecture(ocaKey), acceptEncoding);
     }
 
 }
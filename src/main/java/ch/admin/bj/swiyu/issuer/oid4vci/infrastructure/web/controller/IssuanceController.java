@@ -6,22 +6,28 @@
 
 package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.controller;
 
+import ch.admin.bj.swiyu.issuer.oid4vci.api.NonceResponseDto;
 import ch.admin.bj.swiyu.issuer.oid4vci.api.OAuthTokenDto;
 import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.OAuthException;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialRequest;
 import ch.admin.bj.swiyu.issuer.oid4vci.service.CredentialService;
+import ch.admin.bj.swiyu.issuer.oid4vci.service.NonceService;
 import io.micrometer.core.annotation.Timed;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.regex.Pattern;
+import java.io.IOException;
 
 /**
  * OpenID4VC Issuance Controller
@@ -39,6 +45,7 @@ public class IssuanceController {
     private static final String OID4VCI_GRANT_TYPE = "urn:ietf:params:oauth:grant-type:pre-authorized_code";
 
     private final CredentialService credentialService;
+    private final NonceService nonceService;
 
     /**
      * Endpoint for the wallet to fetch the token required for getting the credential
@@ -62,27 +69,35 @@ public class IssuanceController {
         return credentialService.issueOAuthToken(preAuthCode);
     }
 
+    /**
+     * Endpoint for the wallet to fetch a fresh c_nonce to be used in holder binding proofs.
+     * The nonce is self-contained and is not bound to a credential offer.
+     */
+    @Timed
+    @PostMapping(value = {"/nonce"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Collect a fresh c_nonce for holder binding proofs")
+    public ResponseEntity<NonceResponseDto> nonce() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(new NonceResponseDto(nonceService.createNonce()));
+    }
+
     @Timed
     @PostMapping(value = {"/credential"}, produces = {MediaType.APPLICATION_JSON_VALUE, "application/jwt"})
     @Operation(summary = "Collect credential associated with the bearer token with the requested credential properties.")
-    public ResponseEntity<String> createCredential(
+    @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = String.class)),
+            @Content(mediaType = "application/jwt", schema = @Schema(implementation = String.class))})
+    public void createCredential(
             @RequestHeader("Authorization") String bearerToken,
-            @Validated @RequestBody CredentialRequest credentialRequest) {
-        if (bearerToken == null) {
-            throw OAuthException.invalidRequest("No authorization header found");
-        }
-        var regexPattern = Pattern.compile("bearer (.*)", Pattern.CASE_INSENSITIVE);
-        var matcher = regexPattern.matcher(bearerToken);
-        if (!matcher.find()) {
-            throw OAuthException.invalidRequest("No bearer token found");
-        }
+            @Validated @RequestBody CredentialRequest credentialRequest,
+            HttpServletResponse response) throws IOException {
+        var credentialEnvelope = credentialService.createCredential(credentialRequest, BearerTokenParser.parse(bearerToken));
 
-        var credentialEnvelope = credentialService.createCredential(credentialRequest, matcher.group(1));
-
-        var headers = new HttpHeaders();
-        headers.set(HttpHeaders.CONTENT_TYPE, credentialEnvelope.getContentType());
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(credentialEnvelope.getOid4vciCredentialJson());
+        // The credential response is written as is, without converting it through a message converter
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(credentialEnvelope.getContentType());
+        response.setContentLength(credentialEnvelope.getContentLength());
+        credentialEnvelope.writeTo(response.getOutputStream());
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.controller;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.service.MetadataDocument;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Responds with the precomputed form of a {@link MetadataDocument}, the compressed one if the client accepts gzip
+ * <a href="https://www.rfc-editor.org/rfc/rfc9110#section-12.5.3">RFC 9110 12.5.3</a>.
+ * <p>
+ * The subresource integrity of the uncompressed json is sent in the {@value #INTEGRITY_HEADER} header, so it can be
+ * copied into #integrity properties referencing the document.
+ * </p>
+ */
+@UtilityClass
+class MetadataResponses {
+
+    static final String INTEGRITY_HEADER = "X-Integrity";
+    private static final String GZIP = "gzip";
+
+    /**
+     * @param acceptEncoding value of the Accept-Encoding header, may be null
+     */
+    static ResponseEntity<byte[]> of(MetadataDocument document, String acceptEncoding) {
+        var response = ResponseEntity.ok()
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(INTEGRITY_HEADER, document.integrity());
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(document.gzipped());
+        }
+        return response.body(document.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            var parameters = coding.split(";");
+            if (GZIP.equalsIgnoreCase(parameters[0].trim())) {
+                return parameters.length == 1 || !parameters[1].trim().matches("(?i)q=0(\\.0{0,3})?");
+            }
+        }
+        return false;
+    }
+}
@@ -7,19 +7,21 @@
 package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.controller;
 
 import ch.admin.bj.swiyu.issuer.oid4vci.api.OpenIdConfigurationDto;
-import ch.admin.bj.swiyu.issuer.oid4vci.common.config.OpenIdIssuerConfiguration;
-import ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.config.OpenIdIssuerApiConfiguration;
+import ch.admin.bj.swiyu.issuer.oid4vci.service.CredentialMetadataService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.io.IOException;
-import java.util.Map;
-
 /**
  * Well known Controller
  * <p>
@@ -33,18 +35,18 @@ import java.util.Map;
 @Tag(name = "Well-known endpoints", description = "OpenID .well-known endpoints for issuer configuration and credentials API")
 public class WellKnownController {
 
-    private final OpenIdIssuerApiConfiguration openIDConfigurationDto;
-    private final OpenIdIssuerConfiguration openIDConfiguration;
+    private final CredentialMetadataService credentialMetadataService;
 
     /**
      * General information about the issuer
      *
      * @return OpenIdConfigurationDto as defined by OIDConnect and extended by OID4VCI
      */
-    @GetMapping(value = {"/.well-known/openid-configuration"})
+    @GetMapping(value = {"/.well-known/openid-configuration"}, produces = {MediaType.APPLICATION_JSON_VALUE})
     @Operation(summary = "OpenID Connect information required for issuing VCs")
-    public OpenIdConfigurationDto getOpenIDConfiguration() throws IOException {
-        return openIDConfigurationDto.getOpenIdConfiguration();
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = OpenIdConfigurationDto.class)))
+    public ResponseEntity<byte[]> getOpenIDConfiguration(@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return MetadataResponses.of(credentialMetadataService.getOpenIdConfiguration(), acceptEncoding);
     }
 
     /**
@@ -52,9 +54,10 @@ public class WellKnownController {
      *
      * @return Issuer Metadata as defined by OID4VCI
      */
-    @GetMapping(value = {"/.well-known/openid-credential-issuer"})
+    @GetMapping(value = {"/.well-known/openid-credential-issuer"}, produces = {MediaType.APPLICATION_JSON_VALUE})
     @Operation(summary = "Information about credentials which can be issued.")
-    public Map<String, Object> getIssuerMetadata() throws IOException {
-        return openIDConfiguration.getIssuerMetadata();
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(type = "object")))
+    public ResponseEntity<byte[]> getIssuerMetadata(@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return MetadataResponses.of(credentialMetadataService.getIssuerMetadata(), acceptEncoding);
     }
 }
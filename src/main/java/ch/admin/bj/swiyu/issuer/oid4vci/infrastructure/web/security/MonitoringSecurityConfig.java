@@ -47,11 +47,11 @@ public class MonitoringSecurityConfig {
     public SecurityFilterChain securityFilterChainForMonitoring(HttpSecurity http) throws Exception {
         return http
                 // Apply security settings to API endpoints, Swagger UI, API documentation and actuator endpoints
-                .securityMatchers(matchers -> matchers.requestMatchers("/actuator/prometheus"))
+                .securityMatchers(matchers -> matchers.requestMatchers("/actuator/prometheus", "/actuator/statuslists/**"))
                 // Disable CSRF protection since this is a stateless API (no browser sessions)
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/actuator/prometheus").hasRole(BASIC_AUTH_ROLE_NAME)
+                        .requestMatchers("/actuator/prometheus", "/actuator/statuslists/**").hasRole(BASIC_AUTH_ROLE_NAME)
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .httpBasic(Customizer.withDefaults())
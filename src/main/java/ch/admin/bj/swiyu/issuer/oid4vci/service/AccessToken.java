@@ -0,0 +1,28 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.util.UUID;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.utils.UuidUtils;
+
+/**
+ * Access token as presented by the holder, classified once when it is read from the request.
+ *
+ * @param value  the raw token
+ * @param uuid   the token parsed as plain UUID access token, null if it is not one
+ * @param signed true if the token is in the format of {@link AccessTokenService} signed access tokens
+ */
+public record AccessToken(String value, UUID uuid, boolean signed) {
+
+    private static final char SIGNATURE_SEPARATOR = '.';
+
+    public static AccessToken of(String value) {
+        var uuid = UuidUtils.parseOrNull(value);
+        return new AccessToken(value, uuid, uuid == null && value.indexOf(SIGNATURE_SEPARATOR) >= 0);
+    }
+}
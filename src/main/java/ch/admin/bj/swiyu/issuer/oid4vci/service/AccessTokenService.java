@@ -0,0 +1,120 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.AccessTokenProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.OAuthException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
+import org.springframework.stereotype.Service;
+
+/**
+ * Creates and verifies the access tokens handed out by the token endpoint.
+ * <p>
+ * A signed access token has the form {@code base64url(offerId | accessToken | expiration) "." base64url(hmac)}.
+ * Its signature and expiration can be checked before the credential offer is loaded from the database,
+ * and the offer can then be loaded by its primary key.
+ * </p>
+ */
+@Service
+public class AccessTokenService {
+
+    private static final int UUID_LENGTH = 2 * Long.BYTES;
+    private static final int PAYLOAD_LENGTH = 2 * UUID_LENGTH + Long.BYTES;
+    private static final int TOKEN_LENGTH = PAYLOAD_LENGTH + HmacKeyRing.MAC_LENGTH;
+    private static final int ENCODED_PAYLOAD_LENGTH = (PAYLOAD_LENGTH * 4 + 2) / 3;
+    private static final int ENCODED_MAC_LENGTH = (HmacKeyRing.MAC_LENGTH * 4 + 2) / 3;
+    private static final char SEPARATOR = '.';
+
+    private final boolean signed;
+    private final HmacKeyRing keyRing;
+
+    /**
+     * @throws ConfigurationException if signed access tokens are enabled without HMAC keys, as the tokens would only be
+     *                                accepted by the issuing instance
+     */
+    public AccessTokenService(AccessTokenProperties accessTokenProperties) {
+        this.signed = accessTokenProperties.isSigned();
+        var hmacKeys = accessTokenProperties.getHmacKeys();
+        // Without signing, configured keys still verify the tokens signed before it was turned off
+        this.keyRing = signed || !hmacKeys.isEmpty()
+                ? HmacKeyRing.required(hmacKeys, "signed access tokens", "ACCESS_TOKEN_HMAC_KEYS")
+                : null;
+    }
+
+    /**
+     * @param offer credential offer in progress, with access token and token expiration set
+     * @return the access token to hand out to the holder
+     */
+    public String createAccessToken(CredentialOffer offer) {
+        if (!signed) {
+            return offer.getAccessToken().toString();
+        }
+        var token = ByteBuffer.allocate(TOKEN_LENGTH)
+                .putLong(offer.getId().getMostSignificantBits())
+                .putLong(offer.getId().getLeastSignificantBits())
+                .putLong(offer.getAccessToken().getMostSignificantBits())
+                .putLong(offer.getAccessToken().getLeastSignificantBits())
+                .putLong(offer.getTokenExpirationTimestamp());
+        token.put(keyRing.sign(token.array(), 0, PAYLOAD_LENGTH));
+        var encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] encoded = token.array();
+        return encoder.encodeToString(Arrays.copyOf(encoded, PAYLOAD_LENGTH))
+                + SEPARATOR
+                + encoder.encodeToString(Arrays.copyOfRange(encoded, PAYLOAD_LENGTH, TOKEN_LENGTH));
+    }
+
+    /**
+     * Verifies signature and expiration of a signed access token, without accessing the database.
+     *
+     * @param accessToken access token in the signed format
+     * @return the offer id and access token carried by the token
+     * @throws OAuthException if the token has not been signed by one of the configured keys or has expired
+     */
+    public SignedAccessToken verifySignedAccessToken(String accessToken) {
+        if (accessToken.length() != ENCODED_PAYLOAD_LENGTH + 1 + ENCODED_MAC_LENGTH
+                || accessToken.charAt(ENCODED_PAYLOAD_LENGTH) != SEPARATOR) {
+            throw OAuthException.invalidRequest("Invalid accessToken");
+        }
+        byte[] token = new byte[TOKEN_LENGTH];
+        try {
+            var decoder = Base64.getUrlDecoder();
+            byte[] ascii = accessToken.getBytes(StandardCharsets.US_ASCII);
+            decoder.decode(Arrays.copyOf(ascii, ENCODED_PAYLOAD_LENGTH), token);
+            System.arraycopy(decoder.decode(Arrays.copyOfRange(ascii, ENCODED_PAYLOAD_LENGTH + 1, ascii.length)),
+                    0, token, PAYLOAD_LENGTH, HmacKeyRing.MAC_LENGTH);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw OAuthException.invalidRequest("Invalid accessToken");
+        }
+        if (keyRing == null || !keyRing.verify(token, 0, PAYLOAD_LENGTH, PAYLOAD_LENGTH)) {
+            throw OAuthException.invalidRequest("Invalid accessToken");
+        }
+        var payload = ByteBuffer.wrap(token);
+        var offerId = new UUID(payload.getLong(), payload.getLong());
+        var tokenId = new UUID(payload.getLong(), payload.getLong());
+        if (Instant.now().isAfter(Instant.ofEpochSecond(payload.getLong()))) {
+            throw OAuthException.invalidRequest("AccessToken expired.");
+        }
+        return new SignedAccessToken(offerId, tokenId);
+    }
+
+    /**
+     * Content of a verified signed access token
+     *
+     * @param offerId     id of the credential offer the token was issued for
+     * @param accessToken access token stored with the credential offer
+     */
+    public record SignedAccessToken(UUID offerId, UUID accessToken) {
+    }
+}
@@ -15,39 +15,50 @@ import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.VerifiableCredent
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.VerifiableCredentialStatusReference;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialResponseEncryption;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption.CredentialResponseEncryptor;
-import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.DidJwk;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption.PreparedResponseEncryption;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.CredentialConfiguration;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerMetadataTechnical;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.JWK;
 import lombok.Getter;
 import org.springframework.http.MediaType;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 
 import static ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialRequestError.INVALID_CREDENTIAL_REQUEST;
 
 @Getter
 public abstract class CredentialBuilder {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    /**
+     * Length of the credential response without the values of format and credential
+     */
+    private static final int ENVELOPE_LENGTH = "{\"format\":\"\",\"credential\":\"\"}".length();
+
     private final ApplicationProperties applicationProperties;
     private final IssuerMetadataTechnical issuerMetadata;
     private final DataIntegrityService dataIntegrityService;
     private final JWSSigner signer;
-    private CredentialResponseEncryptor credentialResponseEncryptor;
+    private final CredentialResponseEncryptor credentialResponseEncryptor;
+    private Optional<PreparedResponseEncryption> responseEncryption;
     private CredentialOffer credentialOffer;
     private CredentialConfiguration credentialConfiguration;
-    private Optional<DidJwk> holderBinding;
+    private Optional<JWK> holderBinding;
     private List<String> metadataCredentialsSupportedIds;
 
-    CredentialBuilder(ApplicationProperties applicationProperties, IssuerMetadataTechnical issuerMetadata, DataIntegrityService dataIntegrityService, JWSSigner signer) {
+    CredentialBuilder(ApplicationProperties applicationProperties, IssuerMetadataTechnical issuerMetadata, DataIntegrityService dataIntegrityService, CredentialResponseEncryptor credentialResponseEncryptor, JWSSigner signer) {
         this.applicationProperties = applicationProperties;
         this.issuerMetadata = issuerMetadata;
         this.dataIntegrityService = dataIntegrityService;
+        this.credentialResponseEncryptor = credentialResponseEncryptor;
         this.holderBinding = Optional.empty();
         this.signer = signer;
     }
@@ -58,35 +69,31 @@ public abstract class CredentialBuilder {
         return this;
     }
 
+    /**
+     * Validates the requested encryption and the holder key, so invalid parameters are rejected before the credential is signed
+     */
     public CredentialBuilder credentialResponseEncryption(CredentialResponseEncryption credentialResponseEncryption) {
-        this.credentialResponseEncryptor = new CredentialResponseEncryptor(issuerMetadata.getResponseEncryption(), credentialResponseEncryption);
+        this.responseEncryption = credentialResponseEncryptor.prepare(credentialResponseEncryption);
         return this;
     }
 
     public CredentialEnvelopeDto build() {
-        var credential = getCredential();
-        var oid4vciCredential = new HashMap<String, String>();
-        oid4vciCredential.put("format", this.credentialConfiguration.getFormat());
-        oid4vciCredential.put("credential", credential);
-        String oid4vciCredentialJson;
-        try {
-            oid4vciCredentialJson = new ObjectMapper().writeValueAsString(oid4vciCredential);
-        } catch (JsonProcessingException e) {
-            throw new CredentialException(e.getMessage());
+        if (responseEncryption == null) {
+            credentialResponseEncryption(null);
         }
-        var contentType = MediaType.APPLICATION_JSON_VALUE;
-        if (getCredentialResponseEncryptor().isEncryptionRequired()) {
-            oid4vciCredentialJson = getCredentialResponseEncryptor().encryptResponse(oid4vciCredentialJson);
-            contentType = "application/jwt";
+        var credential = getCredential();
+        var oid4vciCredentialJson = writeEnvelope(this.credentialConfiguration.getFormat(), credential);
+        if (responseEncryption.isPresent()) {
+            return new CredentialEnvelopeDto("application/jwt", responseEncryption.get().encrypt(oid4vciCredentialJson));
         }
-        return new CredentialEnvelopeDto(contentType, oid4vciCredentialJson);
+        return new CredentialEnvelopeDto(MediaType.APPLICATION_JSON_VALUE, oid4vciCredentialJson);
     }
 
     /**
-     * @param holderKeyJson Optional of the holderKey formatted as a json web key
+     * @param holderKey Optional of the holder's public key as decoded while validating the proof
      */
-    public CredentialBuilder holderBinding(Optional<String> holderKeyJson) {
-        this.holderBinding = holderKeyJson.map(s -> DidJwk.createFromJsonString(holderKeyJson.get()));
+    public CredentialBuilder holderBinding(Optional<JWK> holderKey) {
+        this.holderBinding = holderKey;
         return this;
     }
 
@@ -104,10 +111,10 @@ public abstract class CredentialBuilder {
     /**
      * Unpacks the credential offer data and checks the integrity, if applicable
      *
-     * @return the data as to be used in credentialSubject
+     * @param claimConsumer receives each claim of the data as to be used in credentialSubject
      */
-    protected Map<String, Object> getOfferData() {
-        return this.dataIntegrityService.getVerifiedOfferData(this.credentialOffer);
+    protected void forEachOfferClaim(BiConsumer<String, Object> claimConsumer) {
+        this.dataIntegrityService.streamVerifiedOfferData(this.credentialOffer, claimConsumer);
     }
 
     /**
@@ -143,6 +150,25 @@ public abstract class CredentialBuilder {
 
     abstract String getCredential();
 
+    /**
+     * Writes the OID4VCI credential response into a buffer sized for it. Credentials are ASCII without characters to
+     * escape, e.g. the base64url parts of an SD-JWT, so the buffer is filled exactly and handed over without a copy.
+     *
+     * @return the UTF-8 encoded credential response
+     */
+    private static byte[] writeEnvelope(String format, String credential) {
+        var buffer = new EnvelopeBuffer(ENVELOPE_LENGTH + format.length() + credential.length());
+        try (var generator = JSON_FACTORY.createGenerator(buffer)) {
+            generator.writeStartObject();
+            generator.writeStringField("format", format);
+            generator.writeStringField("credential", credential);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new CredentialException(e.getMessage());
+        }
+        return buffer.toExactByteArray();
+    }
+
     /**
      * Gets the credential configuration form the issuer metadata matching the credential supported id of the offer
      *
@@ -155,4 +181,17 @@ public abstract class CredentialBuilder {
                 new Oid4vcException(INVALID_CREDENTIAL_REQUEST, "Requested Credential is not offered (anymore). Credential supported id was " + offer.getMetadataCredentialSupportedId().getFirst()));
     }
 
+    private static final class EnvelopeBuffer extends ByteArrayOutputStream {
+
+        EnvelopeBuffer(int size) {
+            super(size);
+        }
+
+        /**
+         * @return the internal array if it is filled exactly, a copy of the written bytes otherwise
+         */
+        byte[] toExactByteArray() {
+            return count == buf.length ? buf : toByteArray();
+        }
+    }
 }
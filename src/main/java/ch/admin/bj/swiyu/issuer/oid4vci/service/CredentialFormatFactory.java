@@ -7,37 +7,49 @@
 package ch.admin.bj.swiyu.issuer.oid4vci.service;
 
 import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
-import ch.admin.bj.swiyu.issuer.oid4vci.common.config.SdjwtProperties;
-import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerMetadataTechnical;
 import com.nimbusds.jose.JWSSigner;
-import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
-@AllArgsConstructor
 public class CredentialFormatFactory {
 
+    private static final String SD_JWT_FORMAT = "vc+sd-jwt";
+
     private final ApplicationProperties applicationProperties;
-    private final IssuerMetadataTechnical issuerMetadata;
+    private final MetadataRegistry metadataRegistry;
     private final DataIntegrityService dataIntegrityService;
-    private final SdjwtProperties sdjwtProperties;
+    private final SdJwtDisclosureFactory disclosureFactory;
     private final JWSSigner signer;
 
+    public CredentialFormatFactory(ApplicationProperties applicationProperties, MetadataRegistry metadataRegistry, DataIntegrityService dataIntegrityService, SdJwtDisclosureFactory disclosureFactory, JWSSigner signer) {
+        this.applicationProperties = applicationProperties;
+        this.metadataRegistry = metadataRegistry;
+        this.dataIntegrityService = dataIntegrityService;
+        this.disclosureFactory = disclosureFactory;
+        this.signer = signer;
+    }
+
     /**
      * Get the credential format builder for the given configuration identifier.
      * All values are allowed which are present in resources/example_issuer_metadata.json file
+     * <p>
+     * The builder works on the metadata current at the time of this call, the encryptor and the issuance plan are
+     * taken from the same snapshot.
+     * </p>
      *
      * @param configurationIdentifier unique identifier for credential profile
      */
     public CredentialBuilder getFormatBuilder(String configurationIdentifier) {
+        var metadata = metadataRegistry.getSnapshot();
+        var issuerMetadata = metadata.getIssuerMetadataTechnical();
         var configuration = issuerMetadata.getCredentialConfigurationSupported().get(configurationIdentifier);
         if (configuration == null) {
             throw new IllegalArgumentException("Unknown configuration identifier: " + configurationIdentifier);
         }
 
         return switch (configuration.getFormat()) {
-            case "vc+sd-jwt" ->
-                    new SdJwtCredential(applicationProperties, issuerMetadata, dataIntegrityService, sdjwtProperties, signer);
+            case SD_JWT_FORMAT ->
+                    new SdJwtCredential(applicationProperties, issuerMetadata, dataIntegrityService, metadata.getCredentialResponseEncryptor(), metadata.getSdJwtIssuancePlans().get(configurationIdentifier), disclosureFactory, signer);
             default -> throw new IllegalArgumentException("Unknown format: " + configuration.getFormat());
         };
     }
@@ -1,6 +1,5 @@
 package ch.admin.bj.swiyu.issuer.oid4vci.service;
 
-import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.CredentialMetadata;
 import io.fabric8.kubernetes.client.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -10,21 +9,29 @@ import java.util.Map;
 @Service
 @RequiredArgsConstructor
 public class CredentialMetadataService {
-    private final CredentialMetadata credentialMetadata;
+    private final MetadataRegistry metadataRegistry;
 
-    public String getCredentialTypeMetadata(String metadataKey) {
-        return getMapValue(credentialMetadata.getVctMetadataMap(), metadataKey);
+    public MetadataDocument getCredentialTypeMetadata(String metadataKey) {
+        return getMapValue(metadataRegistry.getSnapshot().getVctMetadata(), metadataKey);
     }
 
-    public String getJsonSchema(String jsonSchemaKey) {
-        return getMapValue(credentialMetadata.getJsonSchemaMap(), jsonSchemaKey);
+    public MetadataDocument getJsonSchema(String jsonSchemaKey) {
+        return getMapValue(metadataRegistry.getSnapshot().getJsonSchemas(), jsonSchemaKey);
     }
 
-    public String getOverlaysCaptureArchitecture(String overlaysCaptureArchitectureKey) {
-        return getMapValue(credentialMetadata.getOverlayCaptureArchitectureMap(), overlaysCaptureArchitectureKey);
+    public MetadataDocument getOverlaysCaptureArchitecture(String overlaysCaptureArchitectureKey) {
+        return getMapValue(metadataRegistry.getSnapshot().getOverlaysCaptureArchitecture(), overlaysCaptureArchitectureKey);
     }
 
-    private String getMapValue(Map<String, String> metadataMap, String key) {
+    public MetadataDocument getIssuerMetadata() {
+        return metadataRegistry.getSnapshot().getIssuerMetadata();
+    }
+
+    public MetadataDocument getOpenIdConfiguration() {
+        return metadataRegistry.getSnapshot().getOpenIdConfiguration();
+    }
+
+    private MetadataDocument getMapValue(Map<String, MetadataDocument> metadataMap, String key) {
         if (metadataMap != null && metadataMap.containsKey(key)) {
             return metadataMap.get(key);
         }
@@ -6,7 +6,7 @@
 
 package ch.admin.bj.swiyu.issuer.oid4vci.service;
 
-import java.io.IOException;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -16,15 +16,17 @@ import static ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialReques
 import ch.admin.bj.swiyu.issuer.oid4vci.api.CredentialEnvelopeDto;
 import ch.admin.bj.swiyu.issuer.oid4vci.api.OAuthTokenDto;
 import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
-import ch.admin.bj.swiyu.issuer.oid4vci.common.config.OpenIdIssuerConfiguration;
 import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.OAuthException;
 import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.Oid4vcException;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.utils.UuidUtils;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOfferRepository;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialStatus;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialRequest;
-import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerMetadataTechnical;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.Proof;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofReplayCache;
 import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.JWK;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -36,11 +38,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class CredentialService {
 
     private final CredentialOfferRepository credentialOfferRepository;
-    private final IssuerMetadataTechnical issuerMetadata;
+    private final MetadataRegistry metadataRegistry;
     private final CredentialFormatFactory vcFormatFactory;
     private final ApplicationProperties applicationProperties;
     private final JWSSigner signer;
-    private final OpenIdIssuerConfiguration openIDConfiguration;
+    private final SecureRandomProvider secureRandomProvider;
+    private final ProofReplayCache proofReplayCache;
+    private final NonceService nonceService;
+    private final AccessTokenService accessTokenService;
 
     /**
      * Creates verifiable credential for an existing credentials offer created by issuer mgmt
@@ -48,7 +53,10 @@ public class CredentialService {
      * @return Encoded credentials with media type
      */
     @Transactional
-    public CredentialEnvelopeDto createCredential(CredentialRequest credentialRequest, String accessToken) {
+    public CredentialEnvelopeDto createCredential(CredentialRequest credentialRequest, AccessToken accessToken) {
+        // Reject proofs which have already been used before waiting for the lock on the offer
+        rejectKnownProof(credentialRequest);
+
         var credentialOffer = getCredentialOfferByAccessToken(accessToken);
 
         // We have to check again that the Credential Status has not been changed to catch race condition between holder & issuer
@@ -92,13 +100,13 @@ public class CredentialService {
             throw OAuthException.invalidGrant("Credential has already been used");
         }
         log.info("Pre-Authorized code consumed, sending Access Token {}. Management ID is {} and new status is {}", offer.getAccessToken(), offer.getId(), offer.getCredentialStatus());
-        offer.markAsInProgress();
+        offer.markAsInProgress(secureRandomProvider.randomUUID());
         offer.setTokenIssuanceTimestamp(applicationProperties.getTokenTTL());
 
         credentialOfferRepository.saveAndFlush(offer);
 
         return OAuthTokenDto.builder()
-                .accessToken(offer.getAccessToken().toString())
+                .accessToken(accessTokenService.createAccessToken(offer))
                 .expiresIn(applicationProperties.getTokenTTL())
                 .cNonce(offer.getNonce().toString())
                 .build();
@@ -115,9 +123,18 @@ public class CredentialService {
                 });
     }
 
-    private CredentialOffer getCredentialOfferByAccessToken(String accessToken) {
-        var uuid = uuidOrException(accessToken);
-        return getNonExpiredCredentialOffer(credentialOfferRepository.findByAccessToken(uuid))
+    private CredentialOffer getCredentialOfferByAccessToken(AccessToken accessToken) {
+        if (accessToken.signed()) {
+            // Signature and expiration are checked before touching the database
+            var signedAccessToken = accessTokenService.verifySignedAccessToken(accessToken.value());
+            return getNonExpiredCredentialOffer(credentialOfferRepository.findByIdForUpdate(signedAccessToken.offerId()))
+                    .filter(offer -> signedAccessToken.accessToken().equals(offer.getAccessToken()))
+                    .orElseThrow(() -> OAuthException.invalidRequest("Invalid accessToken"));
+        }
+        if (accessToken.uuid() == null) {
+            throw OAuthException.invalidRequest("Expecting a correct UUID");
+        }
+        return getNonExpiredCredentialOffer(credentialOfferRepository.findByAccessToken(accessToken.uuid()))
                 .orElseThrow(() -> OAuthException.invalidRequest("Invalid accessToken"));
     }
 
@@ -128,15 +145,26 @@ public class CredentialService {
     }
 
     private UUID uuidOrException(String preAuthCode) {
-        UUID offerId;
-        try {
-            offerId = UUID.fromString(preAuthCode);
-        } catch (IllegalArgumentException ex) {
+        var offerId = UuidUtils.parseOrNull(preAuthCode);
+        if (offerId == null) {
             throw OAuthException.invalidRequest("Expecting a correct UUID");
         }
         return offerId;
     }
 
+    private void rejectKnownProof(CredentialRequest credentialRequest) {
+        Optional<Proof> requestProof;
+        try {
+            requestProof = credentialRequest.getProof(applicationProperties.getAcceptableProofTimeWindowSeconds());
+        } catch (IllegalArgumentException e) {
+            // Malformed proofs are rejected when processing the holder binding
+            return;
+        }
+        if (requestProof.isPresent() && proofReplayCache.isKnown(requestProof.get().getReplayKey())) {
+            throw new Oid4vcException(INVALID_PROOF, "Presented proof has already been used");
+        }
+    }
+
     /**
      * Validate and process the credentialRequest
      *
@@ -146,7 +174,8 @@ public class CredentialService {
      * if for the offered credential no holder binding is required
      * @throws Oid4vcException if the credential request is invalid in some form
      */
-    private Optional<String> getHolderPublicKey(CredentialRequest credentialRequest, CredentialOffer credentialOffer) {
+    private Optional<JWK> getHolderPublicKey(CredentialRequest credentialRequest, CredentialOffer credentialOffer) {
+        var issuerMetadata = metadataRegistry.getSnapshot().getIssuerMetadataTechnical();
         var credentialConfiguration = issuerMetadata.getCredentialConfigurationById(
                 credentialOffer.getMetadataCredentialSupportedId().getFirst());
 
@@ -161,13 +190,14 @@ public class CredentialService {
                     () -> new Oid4vcException(INVALID_PROOF, "Proof must be provided for the requested credential"));
             var bindingProofType = Optional.of(proofTypes.get(requestProof.proofType.toString())).orElseThrow(() ->
                     new Oid4vcException(INVALID_PROOF, "Provided proof is not supported for the credential requested."));
-            try {
-                if (!requestProof.isValidHolderBinding((String) openIDConfiguration.getIssuerMetadata().get("credential_issuer"), bindingProofType.getSupportedSigningAlgorithms(), credentialOffer)) {
-                    throw new Oid4vcException(INVALID_PROOF, "Presented proof was invalid!");
-                }
-            } catch (IOException e) {
+            if (!requestProof.isValidHolderBinding(issuerMetadata.getCredentialIssuer(), bindingProofType.getSupportedSigningAlgorithms(), credentialOffer, nonceService::isValidNonce)) {
                 throw new Oid4vcException(INVALID_PROOF, "Presented proof was invalid!");
             }
+            // A proof is accepted up to the time window after its iat, which itself may be up to the time window in the future
+            var proofExpiration = Instant.now().plusSeconds(2L * applicationProperties.getAcceptableProofTimeWindowSeconds());
+            if (!proofReplayCache.markAsUsed(requestProof.getReplayKey(), proofExpiration)) {
+                throw new Oid4vcException(INVALID_PROOF, "Presented proof has already been used");
+            }
             return Optional.of(requestProof.getBinding());
         }
         return Optional.empty();
@@ -9,27 +9,33 @@ package ch.admin.bj.swiyu.issuer.oid4vci.service;
 import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
 import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialException;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.ECDSAVerifier;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.KeyType;
-import com.nimbusds.jwt.SignedJWT;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class DataIntegrityService {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final ApplicationProperties applicationProperties;
 
 
@@ -43,12 +49,37 @@ public class DataIntegrityService {
     }
 
     /**
-     * Unpacks the credential offer data and returns is as HashMap.
-     * If Data integrity checks are available performs these.
+     * Unpacks the credential offer data and streams its top level claims to the given consumer.
+     * If Data integrity checks are available performs these before the first claim is handed out.
+     * <p>
+     * The offer data is read as raw JSON and only the value of the current claim is materialized,
+     * so the credential subject is never held as a whole in an intermediate map.
+     * </p>
      *
-     * @return the Offered Credential Subject Data.
+     * @param claimConsumer receives name and value of each claim of the Offered Credential Subject Data.
      */
-    public Map<String, Object> getVerifiedOfferData(CredentialOffer offer) {
+    public void streamVerifiedOfferData(CredentialOffer offer, BiConsumer<String, Object> claimConsumer) {
+        byte[] offerDataJson = getVerifiedOfferDataJson(offer);
+        try (JsonParser parser = OBJECT_MAPPER.createParser(offerDataJson)) {
+            parser.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Offer data is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String claimName = parser.currentName();
+                parser.nextToken();
+                claimConsumer.accept(claimName, parser.readValueAs(Object.class));
+            }
+        } catch (IOException e) {
+            log.error(String.format("Could not load offer data of offer %s", offer.getId()));
+            throw new CredentialException("Failed to parse offer data", e);
+        }
+    }
+
+    /**
+     * @return the raw JSON of the Offered Credential Subject Data, after a data integrity check if applicable.
+     */
+    private byte[] getVerifiedOfferDataJson(CredentialOffer offer) {
         Map<String, Object> offerData = offer.getOfferData();
         if (offerData == null || !offerData.containsKey("data")) {
             log.error(String.format("Issuer Management Error - Offer %s lacks any offer data", offer.getId()));
@@ -56,7 +87,7 @@ public class DataIntegrityService {
         } else if (offerData.containsKey("data_integrity")) {
             // Data Integrity Checks
             try {
-                SignedJWT dataIntegrityJWT = SignedJWT.parse((String) offerData.get("data"));
+                JWSObject dataIntegrityJWT = JWSObject.parse((String) offerData.get("data"));
                 JWSHeader jwtHeader = dataIntegrityJWT.getHeader();
                 JWK matchingKey = applicationProperties.getDataIntegrityKeySet().getKeyByKeyId(jwtHeader.getKeyID());
                 KeyType kty = matchingKey.getKeyType();
@@ -66,18 +97,13 @@ public class DataIntegrityService {
                     throw new CredentialException("Data Integrity of offer could not be verified");
                 }
                 // Return Verified Data
-                return dataIntegrityJWT.getJWTClaimsSet().toJSONObject();
+                return dataIntegrityJWT.getPayload().toBytes();
             } catch (Exception e) {
                 log.error(String.format("Failed setting up Data Integrity check of offer %s with JWKS %s - caused by ", offer.getId(), applicationProperties.getDataIntegrityJwks()), e.getMessage());
                 throw new CredentialException(e);
             }
         }
         // Just return the data if its not data integrity protected from the issuer management
-        try {
-            return new ObjectMapper().readValue((String) offerData.get("data"), HashMap.class);
-        } catch (JsonProcessingException e) {
-            log.error(String.format("Could not load offer data of offer %s", offer.getId()));
-            throw new CredentialException("Failed to parse offer data", e);
-        }
+        return ((String) offerData.get("data")).getBytes(StandardCharsets.UTF_8);
     }
 }
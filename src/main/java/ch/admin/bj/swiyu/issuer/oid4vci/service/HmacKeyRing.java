@@ -0,0 +1,121 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Set of HMAC-SHA256 keys supporting key rotation.
+ * The first key is used to create MACs, all keys are accepted when verifying them.
+ */
+@Slf4j
+final class HmacKeyRing {
+
+    static final int MAC_LENGTH = 32;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final List<SecretKeySpec> keys;
+    private final ThreadLocal<Mac[]> macs;
+
+    private HmacKeyRing(List<SecretKeySpec> keys, String purpose) {
+        this.keys = keys;
+        this.macs = ThreadLocal.withInitial(() -> createMacs(purpose));
+        // Fail on startup if a key is not usable
+        this.macs.get();
+    }
+
+    /**
+     * For MACs which have to be verified by other instances or after a restart
+     *
+     * @param base64Keys base64 encoded keys
+     * @param purpose    what the keys are used for, to name them in errors
+     * @param setting    the setting of the keys, to name it in errors
+     * @throws ConfigurationException if no keys are configured
+     */
+    static HmacKeyRing required(List<String> base64Keys, String purpose, String setting) {
+        if (base64Keys.isEmpty()) {
+            throw new ConfigurationException(String.format("HMAC keys for %s are required, set %s", purpose, setting));
+        }
+        return new HmacKeyRing(decodeKeys(base64Keys, purpose), purpose);
+    }
+
+    /**
+     * For MACs which can fall back to be verified by the creating instance only
+     *
+     * @param base64Keys base64 encoded keys, if empty a random key is generated
+     * @param purpose    what the keys are used for, to name them in errors and logs
+     * @param setting    the setting of the keys, to name it in logs
+     */
+    static HmacKeyRing orRandomKey(List<String> base64Keys, SecureRandomProvider secureRandomProvider, String purpose, String setting) {
+        if (base64Keys.isEmpty()) {
+            log.warn("No HMAC keys configured for {} with {}, they will only be accepted by this instance until it is restarted. "
+                    + "The keys are mandatory when running more than one instance", purpose, setting);
+            return new HmacKeyRing(List.of(new SecretKeySpec(secureRandomProvider.nextBytes(MAC_LENGTH), HMAC_ALGORITHM)), purpose);
+        }
+        return new HmacKeyRing(decodeKeys(base64Keys, purpose), purpose);
+    }
+
+    /**
+     * @return the MAC of the given range of data, created with the first key
+     */
+    byte[] sign(byte[] data, int offset, int length) {
+        var mac = macs.get()[0];
+        mac.update(data, offset, length);
+        return mac.doFinal();
+    }
+
+    /**
+     * @return true if the MAC at macOffset of data matches the given range of data for one of the keys
+     */
+    boolean verify(byte[] data, int offset, int length, int macOffset) {
+        if (data.length < macOffset + MAC_LENGTH) {
+            return false;
+        }
+        byte[] expectedMac = Arrays.copyOfRange(data, macOffset, macOffset + MAC_LENGTH);
+        for (Mac mac : macs.get()) {
+            mac.update(data, offset, length);
+            if (MessageDigest.isEqual(expectedMac, mac.doFinal())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<SecretKeySpec> decodeKeys(List<String> base64Keys, String purpose) {
+        try {
+            return base64Keys.stream()
+                    .map(key -> new SecretKeySpec(Base64.getDecoder().decode(key), HMAC_ALGORITHM))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(String.format("HMAC keys for %s are not base64 encoded", purpose));
+        }
+    }
+
+    private Mac[] createMacs(String purpose) {
+        var created = new Mac[keys.size()];
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                created[i] = Mac.getInstance(HMAC_ALGORITHM);
+                created[i].init(keys.get(i));
+            }
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new ConfigurationException(String.format("HMAC keys for %s can not be used: %s", purpose, e.getMessage()));
+        }
+        return created;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.AccessTokenProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.WarmUpProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialStatus;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialResponseEncryption;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption.CredentialResponseEncryptor;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofJwt;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofType;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerCredentialResponseEncryption;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerMetadataTechnical;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.bc.BouncyCastleProviderSingleton;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues synthetic credentials in memory on startup, so the issuance code is compiled by the JIT before real traffic arrives.
+ * <p>
+ * Application runners complete before Spring Boot reports the application as ready to accept traffic, so the readiness
+ * probe only reports up once the warm-up is done. Each iteration runs through the access token, the holder binding
+ * proof, the SD-JWT and the response encryption like a credential request does. The credential offer is never saved
+ * and the credentials are signed with a throwaway key, so neither the database nor the issuer key is used.
+ * A failing warm-up is only logged, it does not prevent the application from starting.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "application.warm-up.enabled", havingValue = "true")
+@Slf4j
+public class IssuanceWarmUp implements ApplicationRunner {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String WARM_UP_VALUE = "warm-up";
+    private static final String WARM_UP_ALG = "ES256";
+    private static final String WARM_UP_ENCRYPTION_ALG = "ECDH-ES+A128KW";
+    private static final String WARM_UP_ENCRYPTION_ENC = "A128CBC-HS256";
+
+    private final ApplicationProperties applicationProperties;
+    private final MetadataRegistry metadataRegistry;
+    private final DataIntegrityService dataIntegrityService;
+    private final SdJwtDisclosureFactory disclosureFactory;
+    private final WarmUpProperties warmUpProperties;
+    private final AccessTokenService accessTokenService;
+    private final AtomicInteger completedIterations = new AtomicInteger();
+
+    public IssuanceWarmUp(ApplicationProperties applicationProperties, MetadataRegistry metadataRegistry, DataIntegrityService dataIntegrityService, SdJwtDisclosureFactory disclosureFactory, WarmUpProperties warmUpProperties, SecureRandomProvider secureRandomProvider) {
+        this.applicationProperties = applicationProperties;
+        this.metadataRegistry = metadataRegistry;
+        this.dataIntegrityService = dataIntegrityService;
+        this.disclosureFactory = disclosureFactory;
+        this.warmUpProperties = warmUpProperties;
+        // Signed access tokens with a random key, so the tokens can not be used outside the warm-up
+        var accessTokenProperties = new AccessTokenProperties();
+        accessTokenProperties.setSigned(true);
+        accessTokenProperties.setHmacKeys(List.of(Base64.getEncoder().encodeToString(secureRandomProvider.nextBytes(HmacKeyRing.MAC_LENGTH))));
+        this.accessTokenService = new AccessTokenService(accessTokenProperties);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        var deadline = Instant.now().plus(warmUpProperties.getTimeout());
+        WarmUpContext context = null;
+        try {
+            context = createContext();
+            // The first issuance runs even if creating the keys took up the timeout, so a timed out warm-up still covers every step
+            for (int i = 0; i < warmUpProperties.getIterations() && (i == 0 || Instant.now().isBefore(deadline)); i++) {
+                issue(context, i);
+                completedIterations.incrementAndGet();
+            }
+        } catch (RuntimeException | JOSEException e) {
+            log.warn("Warm-up failed after {} synthetic issuances", completedIterations.get(), e);
+            return;
+        } finally {
+            // The throwaway holder key would otherwise take a place of the holder keys of real proofs
+            if (context != null) {
+                ProofJwt.evictHolderKey(context.holderKey());
+            }
+        }
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        if (completedIterations.get() < warmUpProperties.getIterations()) {
+            log.warn("Warm-up timed out after {} of {} synthetic issuances in {} ms",
+                    completedIterations.get(), warmUpProperties.getIterations(), durationMillis);
+        } else {
+            log.info("Warm-up completed {} synthetic issuances in {} ms", completedIterations.get(), durationMillis);
+        }
+    }
+
+    /**
+     * @return number of synthetic issuances completed so far
+     */
+    public int getCompletedIterations() {
+        return completedIterations.get();
+    }
+
+    private void issue(WarmUpContext context, int iteration) throws JOSEException {
+        var configurationId = context.configurationIds().get(iteration % context.configurationIds().size());
+        var issuancePlan = context.issuancePlans().get(configurationId);
+        var offer = createOffer(context, configurationId, issuancePlan);
+
+        var accessToken = AccessToken.of(accessTokenService.createAccessToken(offer));
+        accessTokenService.verifySignedAccessToken(accessToken.value());
+
+        var proof = new ProofJwt(ProofType.JWT, createProof(context, offer), applicationProperties.getAcceptableProofTimeWindowSeconds());
+        proof.isValidHolderBinding(context.issuerId(), List.of(WARM_UP_ALG), offer, nonce -> false);
+
+        var encryptionAlgs = context.responseEncryption().getAlgValuesSupported();
+        var alg = encryptionAlgs.get(iteration % encryptionAlgs.size());
+        var requestedEncryption = new CredentialResponseEncryption();
+        requestedEncryption.setAlg(alg);
+        requestedEncryption.setEnc(context.responseEncryption().getEncValuesSupported().getFirst());
+        requestedEncryption.setJwk(context.encryptionKeys().get(alg).toPublicJWK().toJSONObject());
+
+        new SdJwtCredential(applicationProperties, context.issuerMetadata(), dataIntegrityService, context.encryptor(),
+                issuancePlan, disclosureFactory, context.signer())
+                .credentialOffer(offer)
+                .credentialResponseEncryption(requestedEncryption)
+                .holderBinding(Optional.of(proof.getBinding()))
+                .credentialType(offer.getMetadataCredentialSupportedId())
+                .build();
+    }
+
+    /**
+     * The offer data contains the configured claims and the claims required by the json schema of the configuration,
+     * so it passes the validation of the offer data. The values follow the json schema where it describes the claim.
+     */
+    private CredentialOffer createOffer(WarmUpContext context, String configurationId, SdJwtIssuancePlan issuancePlan) {
+        var schema = issuancePlan.getOfferDataValidator().getSchemaDocument();
+        var properties = schema != null ? schema.path("properties") : MissingNode.getInstance();
+        Set<String> claimNames = new LinkedHashSet<>();
+        var configuredClaims = context.issuerMetadata().getCredentialConfigurationById(configurationId).getClaims();
+        if (configuredClaims != null) {
+            claimNames.addAll(configuredClaims.keySet());
+        }
+        if (schema != null) {
+            schema.path("required").forEach(claim -> claimNames.add(claim.asText()));
+        }
+        var claims = new LinkedHashMap<String, Object>();
+        for (String claim : claimNames) {
+            if (!SdJwtIssuancePlan.PROTECTED_CLAIMS.contains(claim)) {
+                claims.put(claim, sampleValue(properties.path(claim)));
+            }
+        }
+        try {
+            var now = Instant.now();
+            return new CredentialOffer(UUID.randomUUID(), CredentialStatus.IN_PROGRESS, List.of(configurationId),
+                    Map.of("data", OBJECT_MAPPER.writeValueAsString(claims)), Map.of(), UUID.randomUUID(),
+                    now.plusSeconds(applicationProperties.getTokenTTL()).getEpochSecond(), UUID.randomUUID(), UUID.randomUUID(),
+                    now.plusSeconds(applicationProperties.getTokenTTL()).getEpochSecond(), null, null, Set.of());
+        } catch (JsonProcessingException e) {
+            throw new ConfigurationException(String.format("Warm-up offer data could not be created: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * @param schema json schema of a claim, a missing node if there is none
+     * @return the const, first example, default or first enum value of the schema, otherwise a value of its type
+     */
+    private static JsonNode sampleValue(JsonNode schema) {
+        if (schema.has("const")) {
+            return schema.get("const");
+        }
+        if (schema.path("examples").isArray() && !schema.get("examples").isEmpty()) {
+            return schema.get("examples").get(0);
+        }
+        if (schema.has("default")) {
+            return schema.get("default");
+        }
+        if (schema.path("enum").isArray() && !schema.get("enum").isEmpty()) {
+            return schema.get("enum").get(0);
+        }
+        var type = schema.path("type");
+        if (type.isArray()) {
+            type = type.path(0);
+        }
+        return switch (type.asText()) {
+            case "boolean" -> BooleanNode.TRUE;
+            case "integer", "number" -> IntNode.valueOf(0);
+            case "array" -> OBJECT_MAPPER.createArrayNode();
+            case "object" -> {
+                var object = OBJECT_MAPPER.createObjectNode();
+                schema.path("properties").properties().forEach(property -> object.set(property.getKey(), sampleValue(property.getValue())));
+                yield object;
+            }
+            case "null" -> NullNode.getInstance();
+            default -> TextNode.valueOf(WARM_UP_VALUE);
+        };
+    }
+
+    private static String createProof(WarmUpContext context, CredentialOffer offer) throws JOSEException {
+        var header = new JWSHeader.Builder(JWSAlgorithm.ES256)
+                .type(new JOSEObjectType(ProofType.JWT.getClaimTyp()))
+                .jwk(context.holderKey().toPublicJWK())
+                .build();
+        var claims = new JWTClaimsSet.Builder()
+                .audience(context.issuerId())
+                .issueTime(Date.from(Instant.now()))
+                .claim("nonce", offer.getNonce().toString())
+                .build();
+        var proof = new SignedJWT(header, claims);
+        proof.sign(context.holderSigner());
+        return proof.serialize();
+    }
+
+    /**
+     * Creates the throwaway keys. The response encryption offered in the issuer metadata is used if there is one,
+     * as this is the code path the credential requests take.
+     */
+    private WarmUpContext createContext() throws JOSEException {
+        var metadata = metadataRegistry.getSnapshot();
+        var issuerMetadata = metadata.getIssuerMetadataTechnical();
+        var configurationIds = issuerMetadata.getCredentialConfigurationSupported().entrySet().stream()
+                .filter(entry -> "vc+sd-jwt".equals(entry.getValue().getFormat()))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+        if (configurationIds.isEmpty()) {
+            throw new ConfigurationException("No sd-jwt credential configuration to warm up");
+        }
+        var responseEncryption = issuerMetadata.getResponseEncryption();
+        if (responseEncryption == null) {
+            responseEncryption = new IssuerCredentialResponseEncryption();
+            responseEncryption.setAlgValuesSupported(List.of(WARM_UP_ENCRYPTION_ALG));
+            responseEncryption.setEncValuesSupported(List.of(WARM_UP_ENCRYPTION_ENC));
+        }
+        Map<String, JWK> encryptionKeys = new LinkedHashMap<>();
+        for (String alg : responseEncryption.getAlgValuesSupported()) {
+            encryptionKeys.put(alg, alg.startsWith("RSA")
+                    ? new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS).generate()
+                    : new ECKeyGenerator(Curve.P_256).generate());
+        }
+        var signer = new ECDSASigner(new ECKeyGenerator(Curve.P_256).generate());
+        signer.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+        var holderKey = new ECKeyGenerator(Curve.P_256).generate();
+        return new WarmUpContext(issuerMetadata, configurationIds, metadata.getSdJwtIssuancePlans(), applicationProperties.getIssuerId(), holderKey,
+                new ECDSASigner(holderKey), signer, new CredentialResponseEncryptor(responseEncryption), responseEncryption,
+                Map.copyOf(encryptionKeys));
+    }
+
+    private record WarmUpContext(IssuerMetadataTechnical issuerMetadata,
+                                 List<String> configurationIds,
+                                 Map<String, SdJwtIssuancePlan> issuancePlans,
+                                 String issuerId,
+                                 ECKey holderKey,
+                                 JWSSigner holderSigner,
+                                 JWSSigner signer,
+                                 CredentialResponseEncryptor encryptor,
+                                 IssuerCredentialResponseEncryption responseEncryption,
+                                 Map<String, JWK> encryptionKeys) {
+    }
+}
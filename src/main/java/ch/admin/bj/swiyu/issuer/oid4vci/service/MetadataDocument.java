@@ -0,0 +1,52 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+
+/**
+ * Metadata document as served to the holders, serialized, compressed and hashed once when the metadata is loaded.
+ * The arrays are shared by all requests and must not be modified.
+ *
+ * @param json      the UTF-8 encoded json
+ * @param gzipped   the json compressed with gzip
+ * @param sha256    <a href="https://www.w3.org/TR/SRI/#integrity-metadata">subresource integrity</a> of the json
+ *                  with SHA-256, eg. for vct#integrity
+ * @param integrity subresource integrity of the json with SHA-256 and SHA-384
+ */
+public record MetadataDocument(byte[] json, byte[] gzipped, String sha256, String integrity) {
+
+    public static MetadataDocument of(byte[] json) {
+        var compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (var gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new UncheckedIOException(e);
+        }
+        var sha256 = subresourceIntegrity("sha256", "SHA-256", json);
+        return new MetadataDocument(json, compressed.toByteArray(), sha256,
+                sha256 + " " + subresourceIntegrity("sha384", "SHA-384", json));
+    }
+
+    private static String subresourceIntegrity(String prefix, String algorithm, byte[] content) {
+        try {
+            var digest = MessageDigest.getInstance(algorithm).digest(content);
+            return prefix + "-" + Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new ConfigurationException(String.format("%s is not available: %s", algorithm, e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.api.OpenIdConfigurationDto;
+import ch.admin.bj.swiyu.issuer.oid4vci.api.type_metadata.OcaDto;
+import ch.admin.bj.swiyu.issuer.oid4vci.api.type_metadata.TypeMetadataDto;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.MetadataReloadProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.SdjwtProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption.CredentialResponseEncryptor;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerMetadataTechnical;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+/**
+ * Holds the current {@link MetadataSnapshot} of the issuer metadata, the OpenID configuration and the vct, json schema
+ * and OCA metadata files.
+ * <p>
+ * The snapshot is loaded on startup, an invalid configuration fails the startup. Afterwards the files are checked for
+ * changes in the background, eg. of a mounted ConfigMap, and the snapshot is reloaded when the configuration is
+ * refreshed, eg. by spring cloud kubernetes. A reloaded snapshot is validated completely before it replaces the
+ * current one, so requests either see the previous or the new metadata and an invalid change keeps the previous one.
+ * </p>
+ */
+@Service
+@Slf4j
+public class MetadataRegistry {
+
+    private static final ObjectMapper PLAIN_OBJECT_MAPPER = new ObjectMapper();
+    private static final String SD_JWT_FORMAT = "vc+sd-jwt";
+
+    private final ApplicationProperties applicationProperties;
+    private final SdjwtProperties sdjwtProperties;
+    private final ResourceLoader resourceLoader;
+    /**
+     * Mapper of the web layer, so the documents are serialized as they would be by the controllers
+     */
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<MetadataSnapshot> snapshot;
+    private final ScheduledExecutorService reloader;
+    /**
+     * Files of the last reload which failed, so an invalid change is not retried until the files change again
+     */
+    private final AtomicReference<Map<String, Long>> failedSources = new AtomicReference<>();
+
+    public MetadataRegistry(ApplicationProperties applicationProperties, SdjwtProperties sdjwtProperties, ResourceLoader resourceLoader, ObjectMapper objectMapper, MetadataReloadProperties metadataReloadProperties) {
+        this.applicationProperties = applicationProperties;
+        this.sdjwtProperties = sdjwtProperties;
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        try {
+            this.snapshot = new AtomicReference<>(load(1, currentSources()));
+        } catch (IOException e) {
+            throw new ConfigurationException(String.format("Metadata could not be loaded: %s", e.getMessage()));
+        }
+        this.reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "metadata-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = metadataReloadProperties.getInterval().toMillis();
+        if (interval > 0) {
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the current metadata, read it once per request to work on a consistent version
+     */
+    public MetadataSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Reloads after the configuration has been refreshed, as the template replacements or the file locations may have changed
+     */
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onConfigurationRefreshed() {
+        reloader.execute(this::reload);
+    }
+
+    /**
+     * Loads and validates the metadata and replaces the current snapshot with it
+     *
+     * @return true if the metadata was replaced, false if it is invalid and the previous metadata is kept
+     */
+    public synchronized boolean reload() {
+        var current = snapshot.get();
+        var sources = currentSources();
+        try {
+            var reloaded = load(current.getVersion() + 1, sources);
+            snapshot.set(reloaded);
+            failedSources.set(null);
+            log.info("Reloaded metadata version {}", reloaded.getVersion());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failedSources.set(sources);
+            log.error("Metadata could not be reloaded, keeping version {}", current.getVersion(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Reloads if a file has been modified or the configured files are not the ones of the current snapshot,
+     * unless the reload of exactly these files already failed
+     */
+    void reloadIfChanged() {
+        var sources = currentSources();
+        if (!sources.equals(snapshot.get().getSources()) && !sources.equals(failedSources.get())) {
+            reload();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    private MetadataSnapshot load(long version, Map<String, Long> sources) throws IOException {
+        try (var validatorFactory = Validation.buildDefaultValidatorFactory()) {
+            var validator = validatorFactory.getValidator();
+            // The credential metadata files are independent of each other, so they are read in parallel
+            var vctMetadata = loadMetadataFiles(applicationProperties.getVctMetadataFiles(), validator, TypeMetadataDto.class);
+            var jsonSchemas = loadMetadataFiles(applicationProperties.getJsonSchemaMetadataFiles(), validator, null);
+            var ocaMetadata = loadMetadataFiles(applicationProperties.getOverlaysCaptureArchitectureMetadataFiles(), validator, OcaDto.class);
+
+            var servedVctMetadata = join(vctMetadata);
+            var servedJsonSchemas = join(jsonSchemas);
+            var issuerMetadataJson = loadTemplated(resourceLoader.getResource(applicationProperties.getMetadataFile()));
+            var issuerMetadataTechnical = PLAIN_OBJECT_MAPPER.readValue(issuerMetadataJson, IssuerMetadataTechnical.class);
+            validateIssuerMetadata(issuerMetadataTechnical, validator);
+            var issuerMetadata = PLAIN_OBJECT_MAPPER.readValue(issuerMetadataJson, HashMap.class);
+            var openIdConfiguration = PLAIN_OBJECT_MAPPER.readValue(
+                    loadTemplated(resourceLoader.getResource(applicationProperties.getOpenidFile())), OpenIdConfigurationDto.class);
+
+            return MetadataSnapshot.builder()
+                    .version(version)
+                    .sources(sources)
+                    .issuerMetadataTechnical(issuerMetadataTechnical)
+                    .credentialResponseEncryptor(new CredentialResponseEncryptor(issuerMetadataTechnical.getResponseEncryption()))
+                    .sdJwtIssuancePlans(compileSdJwtIssuancePlans(issuerMetadataTechnical, servedTypeMetadata(servedVctMetadata, servedJsonSchemas)))
+                    .issuerMetadata(MetadataDocument.of(objectMapper.writeValueAsBytes(issuerMetadata)))
+                    .openIdConfiguration(MetadataDocument.of(objectMapper.writeValueAsBytes(openIdConfiguration)))
+                    .vctMetadata(servedVctMetadata)
+                    .jsonSchemas(servedJsonSchemas)
+                    .overlaysCaptureArchitecture(join(ocaMetadata))
+                    .build();
+        }
+    }
+
+    private static void validateIssuerMetadata(IssuerMetadataTechnical issuerMetadata, Validator validator) {
+        var validationResult = validator.validate(issuerMetadata).stream()
+                .map(v -> String.format("- Invalid value for %s. Current is %s but the constraint is %s", v.getPropertyPath().toString(), v.getInvalidValue(), v.getMessage()))
+                .collect(Collectors.joining("\n"));
+        if (!validationResult.isEmpty()) {
+            throw new IllegalArgumentException(String.format("An invalid issuer metadata configuration was provided. Please adapt the following values:\n%s", validationResult));
+        }
+    }
+
+    /**
+     * @param servedTypeMetadata type metadata served by this service by vct. Its integrity is filled in as
+     *                           vct#integrity of the credentials, its json schema validates them
+     */
+    private Map<String, SdJwtIssuancePlan> compileSdJwtIssuancePlans(IssuerMetadataTechnical issuerMetadata, Map<String, ServedTypeMetadata> servedTypeMetadata) {
+        Map<String, SdJwtIssuancePlan> plans = new HashMap<>();
+        issuerMetadata.getCredentialConfigurationSupported().forEach((id, configuration) -> {
+            if (SD_JWT_FORMAT.equals(configuration.getFormat())) {
+                var typeMetadata = servedTypeMetadata.get(configuration.getVct());
+                plans.put(id, typeMetadata == null
+                        ? SdJwtIssuancePlan.compile(id, configuration, sdjwtProperties, null, null)
+                        : SdJwtIssuancePlan.compile(id, configuration, sdjwtProperties, typeMetadata.integrity(), typeMetadata.schema()));
+            }
+        });
+        return Map.copyOf(plans);
+    }
+
+    /**
+     * The json schema of a type metadata document is either embedded or referenced by a schema_uri ending with
+     * the path of a served json schema
+     *
+     * @return SHA-256 subresource integrity and json schema of the served type metadata documents by their vct
+     */
+    private static Map<String, ServedTypeMetadata> servedTypeMetadata(Map<String, MetadataDocument> vctMetadata, Map<String, MetadataDocument> jsonSchemas) throws IOException {
+        Map<String, ServedTypeMetadata> typeMetadata = new HashMap<>();
+        for (var document : vctMetadata.values()) {
+            var content = PLAIN_OBJECT_MAPPER.readTree(document.json());
+            var vct = content.path("vct");
+            if (!vct.isTextual()) {
+                continue;
+            }
+            JsonNode schema = content.hasNonNull("schema") ? content.get("schema") : null;
+            var schemaUri = content.path("schema_uri");
+            if (schema == null && schemaUri.isTextual()) {
+                for (var jsonSchema : jsonSchemas.entrySet()) {
+                    if (schemaUri.asText().endsWith("/json-schema/" + jsonSchema.getKey())) {
+                        schema = PLAIN_OBJECT_MAPPER.readTree(jsonSchema.getValue().json());
+                    }
+                }
+            }
+            typeMetadata.put(vct.asText(), new ServedTypeMetadata(document.sha256(), schema));
+        }
+        return typeMetadata;
+    }
+
+    private <T> CompletableFuture<Map<String, MetadataDocument>> loadMetadataFiles(Map<String, String> metadataFiles, Validator validator, Class<T> clazz) {
+        if (metadataFiles == null) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        var loads = metadataFiles.entrySet().stream()
+                .map(entry -> CompletableFuture.supplyAsync(() -> loadMetadataFile(entry, validator, clazz))
+                        .thenApply(content -> content.map(value -> Map.entry(entry.getKey(), value))))
+                .toList();
+        return CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            var metadata = new HashMap<String, MetadataDocument>();
+            loads.forEach(load -> load.join().ifPresent(entry -> metadata.put(entry.getKey(), entry.getValue())));
+            return Map.copyOf(metadata);
+        });
+    }
+
+    /**
+     * Each file is read once, the templated content is both validated and served
+     *
+     * @return the templated file, empty if there is no such file
+     */
+    private <T> Optional<MetadataDocument> loadMetadataFile(Map.Entry<String, String> entry, Validator validator, Class<T> clazz) {
+        var resource = resourceLoader.getResource(entry.getValue());
+        if (!resource.exists()) {
+            log.error("Could not find configured resource: {}", entry.getValue());
+            return Optional.empty();
+        }
+        log.debug("Loading metadata {}: {}", entry.getKey(), entry.getValue());
+        try {
+            var content = loadTemplated(resource);
+            if (validator != null && clazz != null) {
+                validateMetadata(entry.getValue(), content, validator, clazz);
+            }
+            return Optional.of(MetadataDocument.of(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> void validateMetadata(String location, String content, Validator validator, Class<T> clazz) throws IOException {
+        T metadata = objectMapper.readValue(content, clazz);
+        Set<ConstraintViolation<T>> violations = validator.validate(metadata);
+        if (!violations.isEmpty()) {
+            log.error("Validation error in {} with message: {}", location, violations);
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private static Map<String, MetadataDocument> join(CompletableFuture<Map<String, MetadataDocument>> metadata) throws IOException {
+        try {
+            return metadata.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException ioException) {
+                throw ioException.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return last modification of all configured files by location, -1 for files which can not be accessed
+     */
+    private Map<String, Long> currentSources() {
+        var sources = new LinkedHashMap<String, Long>();
+        sources.put(applicationProperties.getOpenidFile(), lastModified(applicationProperties.getOpenidFile()));
+        sources.put(applicationProperties.getMetadataFile(), lastModified(applicationProperties.getMetadataFile()));
+        for (var metadataFiles : new Map[]{applicationProperties.getVctMetadataFiles(), applicationProperties.getJsonSchemaMetadataFiles(), applicationProperties.getOverlaysCaptureArchitectureMetadataFiles()}) {
+            if (metadataFiles != null) {
+                for (Object location : metadataFiles.values()) {
+                    sources.put((String) location, lastModified((String) location));
+                }
+            }
+        }
+        return sources;
+    }
+
+    private long lastModified(String location) {
+        try {
+            return resourceLoader.getResource(location).lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Loads the resource, replacing placeholders
+     */
+    private String loadTemplated(Resource resource) throws IOException {
+        var json = resource.getContentAsString(Charset.defaultCharset());
+        Properties prop = new Properties();
+        for (Map.Entry<String, String> replacementEntrySet : applicationProperties.getTemplateReplacement().entrySet()) {
+            prop.setProperty(replacementEntrySet.getKey(), replacementEntrySet.getValue());
+        }
+        PropertyPlaceholderHelper helper = new PropertyPlaceholderHelper("${", "}");
+        return helper.replacePlaceholders(json, prop);
+    }
+
+    /**
+     * @param schema json schema of the credentials of the vct, null if there is none
+     */
+    private record ServedTypeMetadata(String integrity, JsonNode schema) {
+    }
+}
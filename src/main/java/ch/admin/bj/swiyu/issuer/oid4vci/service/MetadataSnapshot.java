@@ -0,0 +1,67 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.util.Map;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption.CredentialResponseEncryptor;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerMetadataTechnical;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * One validated version of the issuer metadata and the credential metadata files.
+ * <p>
+ * Everything derived from the metadata is computed when the snapshot is created, so reading it on the request path
+ * does not parse, validate or serialize anything. A snapshot is never modified, a changed metadata file leads to a new
+ * snapshot replacing the previous one as a whole, see {@link MetadataRegistry}.
+ * </p>
+ */
+@Getter
+@Builder
+public final class MetadataSnapshot {
+
+    /**
+     * Increases with every reload
+     */
+    private final long version;
+    /**
+     * Last modification of the files the snapshot was loaded from, by location
+     */
+    private final Map<String, Long> sources;
+
+    private final IssuerMetadataTechnical issuerMetadataTechnical;
+    /**
+     * Encryptor for the response encryption offered in the issuer metadata
+     */
+    private final CredentialResponseEncryptor credentialResponseEncryptor;
+    /**
+     * Issuance plans of all sd-jwt credential configurations
+     */
+    private final Map<String, SdJwtIssuancePlan> sdJwtIssuancePlans;
+
+    /**
+     * The issuer metadata for /.well-known/openid-credential-issuer
+     */
+    private final MetadataDocument issuerMetadata;
+    /**
+     * The OpenID configuration for /.well-known/openid-configuration
+     */
+    private final MetadataDocument openIdConfiguration;
+    /**
+     * <a href="https://www.ietf.org/archive/id/draft-ietf-oauth-sd-jwt-vc-08.html#section-6.2">SD-JWT VC Type Metadata</a> by key
+     */
+    private final Map<String, MetadataDocument> vctMetadata;
+    /**
+     * <a href="https://www.ietf.org/archive/id/draft-ietf-oauth-sd-jwt-vc-08.html#section-6.5">SD-JWT VC JSON Schemas</a> by key
+     */
+    private final Map<String, MetadataDocument> jsonSchemas;
+    /**
+     * <a href="https://oca.colossi.network/">Overlays Capture Architecture</a> documents by key
+     */
+    private final Map<String, MetadataDocument> overlaysCaptureArchitecture;
+}
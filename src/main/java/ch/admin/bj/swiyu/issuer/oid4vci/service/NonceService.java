@@ -0,0 +1,77 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.NonceProperties;
+import org.springframework.stereotype.Service;
+
+/**
+ * Issues and validates self-contained c_nonce values.
+ * <p>
+ * A nonce consists of its issuing time, random bytes and an HMAC over both, encoded as base64url.
+ * It can therefore be validated by every instance knowing the HMAC key, without any database access.
+ * </p>
+ */
+@Service
+public class NonceService {
+
+    private static final int TIMESTAMP_LENGTH = Long.BYTES;
+    private static final int RANDOM_LENGTH = 16;
+    private static final int SIGNED_LENGTH = TIMESTAMP_LENGTH + RANDOM_LENGTH;
+    private static final int NONCE_LENGTH = SIGNED_LENGTH + HmacKeyRing.MAC_LENGTH;
+    /**
+     * Tolerated clock difference between instances
+     */
+    private static final int CLOCK_SKEW_SECONDS = 5;
+
+    private final SecureRandomProvider secureRandomProvider;
+    private final HmacKeyRing keyRing;
+    private final int lifetimeSeconds;
+
+    public NonceService(NonceProperties nonceProperties, SecureRandomProvider secureRandomProvider) {
+        this.secureRandomProvider = secureRandomProvider;
+        this.keyRing = HmacKeyRing.orRandomKey(nonceProperties.getHmacKeys(), secureRandomProvider, "nonces", "NONCE_HMAC_KEYS");
+        this.lifetimeSeconds = nonceProperties.getLifetimeSeconds();
+    }
+
+    /**
+     * @return a new nonce, signed with the first key
+     */
+    public String createNonce() {
+        var nonce = ByteBuffer.allocate(NONCE_LENGTH)
+                .putLong(Instant.now().getEpochSecond())
+                .put(secureRandomProvider.nextBytes(RANDOM_LENGTH));
+        nonce.put(keyRing.sign(nonce.array(), 0, SIGNED_LENGTH));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(nonce.array());
+    }
+
+    /**
+     * @param nonce the nonce as presented in a holder binding proof
+     * @return true if the nonce was issued by the nonce endpoint with one of the configured keys and has not expired
+     */
+    public boolean isValidNonce(String nonce) {
+        if (nonce == null || nonce.length() != (NONCE_LENGTH * 4 + 2) / 3) {
+            return false;
+        }
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(nonce);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        long issuedAt = ByteBuffer.wrap(decoded).getLong();
+        long now = Instant.now().getEpochSecond();
+        if (issuedAt > now + CLOCK_SKEW_SECONDS || issuedAt + lifetimeSeconds < now) {
+            return false;
+        }
+        return keyRing.verify(decoded, 0, SIGNED_LENGTH, SIGNED_LENGTH);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaException;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SchemaId;
+import com.networknt.schema.SchemaLocation;
+import com.networknt.schema.SpecVersion;
+import com.networknt.schema.ValidationMessage;
+
+/**
+ * Validation of the claims of a credential against its credential configuration, compiled once per configuration.
+ * <p>
+ * Claims marked as mandatory in the claims of the issuer metadata must be present. Nested claims are only checked
+ * within claims which are objects. If the type metadata served for the vct of the configuration has a json schema,
+ * the unsecured payload of the credential, that is the always disclosed claims and the claims of the offer, must be
+ * valid against it
+ * <a href="https://www.ietf.org/archive/id/draft-ietf-oauth-sd-jwt-vc-08.html#section-6.5">SD-JWT VC 6.5</a>.
+ * </p>
+ * <p>
+ * The validation runs before the disclosures are created and the credential is signed, so an invalid offer does not
+ * use the signing key.
+ * </p>
+ */
+public final class OfferDataValidator {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final JsonSchemaFactory SCHEMA_FACTORY = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012);
+    /**
+     * Compiling a schema does not check it, so schemas are validated against the meta-schema first
+     */
+    private static final JsonSchema META_SCHEMA = SCHEMA_FACTORY.getSchema(SchemaLocation.of(SchemaId.V202012));
+    /**
+     * Keys of a claim description, an object without any of them contains nested claims
+     */
+    private static final Set<String> CLAIM_DESCRIPTION_KEYS = Set.of("mandatory", "value_type", "display");
+
+    private final String configurationId;
+    private final List<ClaimRequirement> claimRequirements;
+    private final JsonSchema schema;
+    private final JsonNode schemaDocument;
+
+    private OfferDataValidator(String configurationId, List<ClaimRequirement> claimRequirements, JsonSchema schema, JsonNode schemaDocument) {
+        this.configurationId = configurationId;
+        this.claimRequirements = claimRequirements;
+        this.schema = schema;
+        this.schemaDocument = schemaDocument;
+    }
+
+    /**
+     * @param configurationId id of the credential configuration, for error messages
+     * @param claims          claims of the credential configuration in the issuer metadata, may be null
+     * @param schema          json schema of the credential, may be null
+     * @return the validator with the compiled json schema
+     * @throws ConfigurationException if the json schema is invalid
+     */
+    public static OfferDataValidator compile(String configurationId, Map<String, Object> claims, JsonNode schema) {
+        JsonSchema compiledSchema = null;
+        if (schema != null) {
+            var schemaViolations = META_SCHEMA.validate(schema);
+            if (!schemaViolations.isEmpty()) {
+                throw new ConfigurationException(String.format("Invalid json schema for credential configuration %s: %s", configurationId,
+                        schemaViolations.stream().map(ValidationMessage::getMessage).toList()));
+            }
+            try {
+                compiledSchema = SCHEMA_FACTORY.getSchema(schema);
+                // Create all validators now instead of on the first credential
+                compiledSchema.initializeValidators();
+            } catch (JsonSchemaException e) {
+                throw new ConfigurationException(String.format("Invalid json schema for credential configuration %s: %s", configurationId, e.getMessage()));
+            }
+        }
+        return new OfferDataValidator(configurationId, compileClaimRequirements(claims), compiledSchema, schema);
+    }
+
+    /**
+     * @return false if there is nothing to validate for the configuration
+     */
+    public boolean isEnabled() {
+        return schema != null || !claimRequirements.isEmpty();
+    }
+
+    /**
+     * @return the json schema the credentials are validated against, null if there is none
+     */
+    public JsonNode getSchemaDocument() {
+        return schemaDocument;
+    }
+
+    /**
+     * @param credentialClaims the claims of the unsecured payload of the credential by name
+     * @throws CredentialException if the claims do not match the credential configuration
+     */
+    public void validate(Map<String, Object> credentialClaims) {
+        List<String> violations = new ArrayList<>();
+        checkClaimRequirements(claimRequirements, credentialClaims, "", violations);
+        if (schema != null) {
+            for (ValidationMessage message : schema.validate(OBJECT_MAPPER.valueToTree(credentialClaims))) {
+                violations.add(message.getMessage());
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new CredentialException(String.format("Offer data does not match credential configuration %s: %s",
+                    configurationId, String.join("; ", violations)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void checkClaimRequirements(List<ClaimRequirement> requirements, Map<String, Object> claims, String path, List<String> violations) {
+        for (ClaimRequirement requirement : requirements) {
+            var value = claims.get(requirement.name());
+            if (value == null) {
+                if (requirement.mandatory()) {
+                    violations.add(String.format("missing mandatory claim %s%s", path, requirement.name()));
+                }
+            } else if (value instanceof Map<?, ?> nestedClaims) {
+                checkClaimRequirements(requirement.nested(), (Map<String, Object>) nestedClaims, path + requirement.name() + ".", violations);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ClaimRequirement> compileClaimRequirements(Map<String, Object> claims) {
+        if (claims == null) {
+            return List.of();
+        }
+        List<ClaimRequirement> requirements = new ArrayList<>();
+        claims.forEach((name, description) -> {
+            if (!(description instanceof Map<?, ?> descriptionMap)) {
+                return;
+            }
+            boolean isClaimDescription = descriptionMap.keySet().stream().anyMatch(CLAIM_DESCRIPTION_KEYS::contains);
+            var requirement = isClaimDescription
+                    ? new ClaimRequirement(name, Boolean.TRUE.equals(descriptionMap.get("mandatory")), List.of())
+                    : new ClaimRequirement(name, false, compileClaimRequirements((Map<String, Object>) descriptionMap));
+            if (requirement.mandatory() || !requirement.nested().isEmpty()) {
+                requirements.add(requirement);
+            }
+        });
+        return List.copyOf(requirements);
+    }
+
+    /**
+     * @param nested requirements of claims within this claim, if it is an object
+     */
+    private record ClaimRequirement(String name, boolean mandatory, List<ClaimRequirement> nested) {
+    }
+}
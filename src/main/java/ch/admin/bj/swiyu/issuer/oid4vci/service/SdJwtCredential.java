@@ -6,121 +6,167 @@
 
 package ch.admin.bj.swiyu.issuer.oid4vci.service;
 
-import java.text.ParseException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
-import static ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialRequestError.INVALID_PROOF;
 import static ch.admin.bj.swiyu.issuer.oid4vci.common.utils.TimeUtils.getUnixTimeStamp;
 import static ch.admin.bj.swiyu.issuer.oid4vci.common.utils.TimeUtils.instantToUnixTimestamp;
 import static java.util.Objects.nonNull;
 
 import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
-import ch.admin.bj.swiyu.issuer.oid4vci.common.config.SdjwtProperties;
 import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialException;
-import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.Oid4vcException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption.CredentialResponseEncryptor;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerMetadataTechnical;
 import com.authlete.sd.Disclosure;
 import com.authlete.sd.SDJWT;
-import com.authlete.sd.SDObjectBuilder;
-import com.nimbusds.jose.*;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.util.Base64URL;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class SdJwtCredential extends CredentialBuilder {
 
-    private final SdjwtProperties sdjwtProperties;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String SD_ALG = "sha-256";
+    private static final int PAYLOAD_BUFFER_SIZE = 1024;
 
+    private final SdJwtIssuancePlan issuancePlan;
+    private final SdJwtDisclosureFactory disclosureFactory;
 
-    public SdJwtCredential(ApplicationProperties applicationProperties, IssuerMetadataTechnical issuerMetadata, DataIntegrityService dataIntegrityService, SdjwtProperties sdjwtProperties, JWSSigner signer) {
-        super(applicationProperties, issuerMetadata, dataIntegrityService, signer);
-        this.sdjwtProperties = sdjwtProperties;
+
+    public SdJwtCredential(ApplicationProperties applicationProperties, IssuerMetadataTechnical issuerMetadata, DataIntegrityService dataIntegrityService, CredentialResponseEncryptor credentialResponseEncryptor, SdJwtIssuancePlan issuancePlan, SdJwtDisclosureFactory disclosureFactory, JWSSigner signer) {
+        super(applicationProperties, issuerMetadata, dataIntegrityService, credentialResponseEncryptor, signer);
+        this.issuancePlan = issuancePlan;
+        this.disclosureFactory = disclosureFactory;
     }
 
     @Override
     public String getCredential() {
 
-        SDObjectBuilder builder = new SDObjectBuilder();
+        // Optional claims as disclosures
+        // Code below follows example from https://github.com/authlete/sd-jwt?tab=readme-ov-file#credential-jwt
+        List<Map.Entry<String, Object>> disclosedClaims = new ArrayList<>();
+        forEachOfferClaim((claimName, claimValue) -> {
+            if (issuancePlan.isProtectedClaim(claimName)) {
+                // We only log the issue and do not add the claim.
+                log.warn("Upstream application tried to override protected claim {} in credential offer {}. Original value has been retained",
+                        claimName, getCredentialOffer().getId());
+                return;
+            }
+            if (claimValue == null) {
+                // 20250314 - Despite claiming it works, authlete will crash with a nullpointer when given a null value
+                return;
+            }
+            disclosedClaims.add(new AbstractMap.SimpleImmutableEntry<>(claimName, claimValue));
+        });
+        var statusReferences = getStatusReferences();
+        var vctIntegrity = getVctIntegrity();
+        long issuedAt = getUnixTimeStamp();
+        // Fail before the disclosures are created and the credential is signed
+        if (issuancePlan.getOfferDataValidator().isEnabled()) {
+            issuancePlan.getOfferDataValidator().validate(getUnsecuredPayload(disclosedClaims, statusReferences, vctIntegrity, issuedAt));
+        }
+        List<Disclosure> disclosures = disclosureFactory.createDisclosures(disclosedClaims);
 
-        // Mandatory claims or claims which always need to be disclosed according to SD-JWT VC specification
-        builder.putClaim("iss", getApplicationProperties().getIssuerId());
-        // Get first entry because we expect the list to only contain one item
-        var metadataId = getMetadataCredentialsSupportedIds().getFirst();
-        builder.putClaim("vct", getIssuerMetadata().getCredentialConfigurationById(metadataId).getVct());
-        // if we have a vct#integrity, add it
-        Optional.ofNullable(getCredentialOffer().getCredentialMetadata().get("vct#integrity")).ifPresent(o -> builder.putClaim("vct#integrity", o));
-        builder.putClaim("iat", getUnixTimeStamp());
+        try {
+            String signingInput = issuancePlan.getHeader().toBase64URL() + "." + Base64URL.encode(writePayload(disclosures, statusReferences, vctIntegrity, issuedAt));
+            Base64URL signature = getSigner().sign(issuancePlan.getHeader(), signingInput.getBytes(StandardCharsets.US_ASCII));
 
-        // optional field -> only added when set
-        if (nonNull(getCredentialOffer().getCredentialValidFrom())) {
-            builder.putClaim("nbf", instantToUnixTimestamp(getCredentialOffer().getCredentialValidFrom()));
+            return new SDJWT(signingInput + "." + signature, disclosures).toString();
+        } catch (IOException | JOSEException e) {
+            throw new CredentialException(e);
         }
+    }
 
-        // optional field -> only added when set
-        if (nonNull(getCredentialOffer().getCredentialValidUntil())) {
-            builder.putClaim("exp", instantToUnixTimestamp(getCredentialOffer().getCredentialValidUntil()));
-        }
+    /**
+     * Writes the JWT payload of the SD-JWT directly as JSON, without building an intermediate claims set.
+     * The layout matches the one of the authlete SDObjectBuilder: always disclosed claims, followed by
+     * the sorted digests of the disclosures and the hash algorithm.
+     */
+    private byte[] writePayload(List<Disclosure> disclosures, Map<String, Object> statusReferences, Object vctIntegrity, long issuedAt) throws IOException {
+        var payload = new ByteArrayOutputStream(PAYLOAD_BUFFER_SIZE);
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(payload)) {
+            generator.writeStartObject();
+
+            // Mandatory claims or claims which always need to be disclosed according to SD-JWT VC specification
+            generator.writeStringField("iss", getApplicationProperties().getIssuerId());
+            generator.writeStringField("vct", issuancePlan.getVct());
+            // if we have a vct#integrity, add it
+            if (nonNull(vctIntegrity)) {
+                generator.writeObjectField("vct#integrity", vctIntegrity);
+            }
+            generator.writeNumberField("iat", issuedAt);
 
-        getHolderBinding().ifPresent(didJwk -> {
-            try {
-                builder.putClaim("cnf", didJwk.getJWK().toJSONObject());
-            } catch (ParseException e) {
-                throw new Oid4vcException(
-                        e,
-                        INVALID_PROOF,
-                        String.format("Failed expand holder binding %s to cnf", didJwk.getDidJwk())
-                );
+            // optional field -> only added when set
+            if (nonNull(getCredentialOffer().getCredentialValidFrom())) {
+                generator.writeNumberField("nbf", instantToUnixTimestamp(getCredentialOffer().getCredentialValidFrom()));
             }
-        });
 
-        //Add all status entries (if any)
-        for (Map.Entry<String, Object> statusEntry : getStatusReferences().entrySet()) {
-            builder.putClaim(statusEntry.getKey(), statusEntry.getValue());
-        }
-        // https://www.ietf.org/archive/id/draft-ietf-oauth-sd-jwt-vc-08.html#section-3.2.2.2
-        // Registered JWT claims MUST be included not as always disclosed
-        // sub & iat may explicitly be selectively disclosed
-        var protectedClaims = List.of("iss", "nbf", "exp", "iat", "cnf", "vct", "status");
+            // optional field -> only added when set
+            if (nonNull(getCredentialOffer().getCredentialValidUntil())) {
+                generator.writeNumberField("exp", instantToUnixTimestamp(getCredentialOffer().getCredentialValidUntil()));
+            }
 
+            if (getHolderBinding().isPresent()) {
+                generator.writeObjectField("cnf", getHolderBinding().get().toJSONObject());
+            }
 
-        // Optional claims as disclosures
-        // Code below follows example from https://github.com/authlete/sd-jwt?tab=readme-ov-file#credential-jwt
-        List<Disclosure> disclosures = new ArrayList<>();
-        for (var entry : getOfferData().entrySet()) {
-            if (protectedClaims.contains(entry.getKey())) {
-                // We only log the issue and do not add the claim.
-                log.warn("Upstream application tried to override protected claim {} in credential offer {}. Original value has been retained",
-                        entry.getKey(), getCredentialOffer().getId());
-                continue;
+            //Add all status entries (if any)
+            for (Map.Entry<String, Object> statusEntry : statusReferences.entrySet()) {
+                generator.writeObjectField(statusEntry.getKey(), statusEntry.getValue());
             }
-            if (entry.getValue() == null) {
-                // 20250314 - Despite claiming it works, authlete will crash with a nullpointer when given a null value
-                continue;
+
+            if (!disclosures.isEmpty()) {
+                generator.writeArrayFieldStart("_sd");
+                for (String digest : disclosures.stream().map(Disclosure::digest).sorted().toList()) {
+                    generator.writeString(digest);
+                }
+                generator.writeEndArray();
             }
-            // TODO: EID-1782; Handle mandatory subject fields using issuer metadata
-            Disclosure dis = new Disclosure(entry.getKey(), entry.getValue());
-            disclosures.add(dis);
-            builder.putSDClaim(dis);
+            generator.writeStringField("_sd_alg", SD_ALG);
+
+            generator.writeEndObject();
         }
+        return payload.toByteArray();
+    }
 
-        try {
-            JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.ES256)
-                    .type(new JOSEObjectType("vc+sd-jwt"))
-                    .keyID(sdjwtProperties.getVerificationMethod())
-                    .customParam("ver", sdjwtProperties.getVersion())
-                    .build();
-            JWTClaimsSet claimsSet = JWTClaimsSet.parse(builder.build(true));
-            SignedJWT jwt = new SignedJWT(header, claimsSet);
-
-            jwt.sign(this.getSigner());
-
-            return new SDJWT(jwt.serialize(), disclosures).toString();
-        } catch (ParseException | JOSEException e) {
-            throw new CredentialException(e);
+    /**
+     * @return the vct#integrity, one given in the offer takes precedence over the one of the served type metadata
+     */
+    private Object getVctIntegrity() {
+        Object vctIntegrity = getCredentialOffer().getCredentialMetadata().get("vct#integrity");
+        return vctIntegrity != null ? vctIntegrity : issuancePlan.getVctIntegrity();
+    }
+
+    /**
+     * @return the claims of the credential as they are after all disclosures are resolved, in the same order as in the payload
+     */
+    private Map<String, Object> getUnsecuredPayload(List<Map.Entry<String, Object>> disclosedClaims, Map<String, Object> statusReferences, Object vctIntegrity, long issuedAt) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("iss", getApplicationProperties().getIssuerId());
+        payload.put("vct", issuancePlan.getVct());
+        if (nonNull(vctIntegrity)) {
+            payload.put("vct#integrity", vctIntegrity);
+        }
+        payload.put("iat", issuedAt);
+        if (nonNull(getCredentialOffer().getCredentialValidFrom())) {
+            payload.put("nbf", instantToUnixTimestamp(getCredentialOffer().getCredentialValidFrom()));
+        }
+        if (nonNull(getCredentialOffer().getCredentialValidUntil())) {
+            payload.put("exp", instantToUnixTimestamp(getCredentialOffer().getCredentialValidUntil()));
         }
+        getHolderBinding().ifPresent(binding -> payload.put("cnf", binding.toJSONObject()));
+        payload.putAll(statusReferences);
+        disclosedClaims.forEach(claim -> payload.put(claim.getKey(), claim.getValue()));
+        return payload;
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.IssuanceProperties;
+import com.authlete.sd.Disclosure;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the disclosures of the selectively disclosable claims of an SD-JWT.
+ * <p>
+ * Creating a disclosure (salt, JSON encoding, base64url and digest) does not depend on the other claims.
+ * Credentials with many claims therefore have their disclosures created in parallel on a dedicated, bounded pool.
+ * The disclosures are always returned in the order of the claims, so the output does not depend on the mode.
+ * </p>
+ */
+@Component
+public class SdJwtDisclosureFactory {
+
+    private final SecureRandomProvider secureRandomProvider;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    public SdJwtDisclosureFactory(IssuanceProperties issuanceProperties, SecureRandomProvider secureRandomProvider) {
+        this.secureRandomProvider = secureRandomProvider;
+        this.parallelThreshold = issuanceProperties.getParallelDisclosureThreshold();
+        this.pool = new ForkJoinPool(issuanceProperties.getParallelDisclosureParallelism());
+    }
+
+    /**
+     * @param claims name and value of the claims to be selectively disclosable, values must not be null
+     * @return the disclosures in the same order as the claims
+     */
+    public List<Disclosure> createDisclosures(List<Map.Entry<String, Object>> claims) {
+        if (parallelThreshold == 0 || claims.size() < parallelThreshold) {
+            return claims.stream().map(this::createDisclosure).toList();
+        }
+        // The parallel stream runs in the pool it was started from, keeping the load off the common pool
+        return pool.submit(() -> claims.parallelStream().map(this::createDisclosure).toList()).join();
+    }
+
+    /**
+     * The disclosure computes its encoding and sha-256 digest on construction, so all the work happens on the worker
+     */
+    private Disclosure createDisclosure(Map.Entry<String, Object> claim) {
+        return new Disclosure(secureRandomProvider.nextSalt(), claim.getKey(), claim.getValue());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
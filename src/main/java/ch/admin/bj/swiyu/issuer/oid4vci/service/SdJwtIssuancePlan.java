@@ -0,0 +1,92 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.text.ParseException;
+import java.util.Set;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.SdjwtProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.CredentialConfiguration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import lombok.Getter;
+
+/**
+ * Immutable issuance plan for one SD-JWT credential configuration.
+ * <p>
+ * Everything which only depends on the issuer metadata and the signing key configuration is compiled once at startup,
+ * so issuing a credential does not have to look up the configuration or build the JWS header again.
+ * </p>
+ */
+@Getter
+public final class SdJwtIssuancePlan {
+
+    /**
+     * Claims the upstream application is not allowed to set in the offer data.
+     * <p>
+     * <a href="https://www.ietf.org/archive/id/draft-ietf-oauth-sd-jwt-vc-08.html#section-3.2.2.2">SD-JWT VC 3.2.2.2</a>
+     * Registered JWT claims MUST be included not as always disclosed.
+     * sub & iat may explicitly be selectively disclosed
+     * </p>
+     */
+    public static final Set<String> PROTECTED_CLAIMS = Set.of("iss", "nbf", "exp", "iat", "cnf", "vct", "status");
+
+    private final String configurationId;
+    private final CredentialConfiguration configuration;
+    private final String vct;
+    /**
+     * Subresource integrity of the type metadata document served for the vct, null if this service does not serve it
+     */
+    private final String vctIntegrity;
+    /**
+     * Validation of the credential claims against the claims metadata and json schema of the configuration
+     */
+    private final OfferDataValidator offerDataValidator;
+    /**
+     * JWS header shared by all credentials of this configuration.
+     * It is created by parsing its own encoding, so the base64url form is kept and reused for every signature.
+     */
+    private final JWSHeader header;
+
+    private SdJwtIssuancePlan(String configurationId, CredentialConfiguration configuration, String vctIntegrity, OfferDataValidator offerDataValidator, JWSHeader header) {
+        this.configurationId = configurationId;
+        this.configuration = configuration;
+        this.vct = configuration.getVct();
+        this.vctIntegrity = vctIntegrity;
+        this.offerDataValidator = offerDataValidator;
+        this.header = header;
+    }
+
+    /**
+     * @param configurationId id of the credential configuration in the issuer metadata
+     * @param configuration   the credential configuration to compile the plan for
+     * @param sdjwtProperties the signing key configuration providing kid and sd-jwt version
+     * @param vctIntegrity    subresource integrity of the served type metadata of the vct, may be null
+     * @param schema          json schema of the credentials, may be null
+     * @return the issuance plan for the configuration
+     */
+    public static SdJwtIssuancePlan compile(String configurationId, CredentialConfiguration configuration, SdjwtProperties sdjwtProperties, String vctIntegrity, JsonNode schema) {
+        var header = new JWSHeader.Builder(JWSAlgorithm.ES256)
+                .type(new JOSEObjectType("vc+sd-jwt"))
+                .keyID(sdjwtProperties.getVerificationMethod())
+                .customParam("ver", sdjwtProperties.getVersion())
+                .build();
+        try {
+            return new SdJwtIssuancePlan(configurationId, configuration, vctIntegrity,
+                    OfferDataValidator.compile(configurationId, configuration.getClaims(), schema), JWSHeader.parse(header.toBase64URL()));
+        } catch (ParseException e) {
+            throw new ConfigurationException(String.format("Could not create the JWS header for credential configuration %s", configurationId));
+        }
+    }
+
+    public boolean isProtectedClaim(String claimName) {
+        return PROTECTED_CLAIMS.contains(claimName);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.IssuanceProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Source of the randomness used during issuance, such as the salts of SD-JWT disclosures, access tokens and nonces.
+ * <p>
+ * A single {@link SecureRandom} is synchronized, so all issuing threads would queue on its lock.
+ * Instead every thread gets its own DRBG instance, seeded independently from the system entropy source.
+ * Optionally salts are generated ahead of time by a background thread into a lock-free ring buffer,
+ * which the issuing threads drain before falling back to their own DRBG.
+ * </p>
+ */
+@Component
+@Slf4j
+public class SecureRandomProvider {
+
+    /**
+     * Same salt length as used by the sd-jwt library by default
+     */
+    private static final int SALT_LENGTH = 16;
+    private static final Base64.Encoder BASE64URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final ThreadLocal<SecureRandom> THREAD_RANDOM = ThreadLocal.withInitial(SecureRandomProvider::createDrbg);
+
+    private final SaltRing saltRing;
+    private final Thread saltFiller;
+
+    public SecureRandomProvider(IssuanceProperties issuanceProperties) {
+        int poolSize = issuanceProperties.getSaltPoolSize();
+        if (poolSize > 0) {
+            this.saltRing = new SaltRing(poolSize);
+            this.saltFiller = new Thread(this::fillSaltRing, "salt-pool-filler");
+            this.saltFiller.setDaemon(true);
+            this.saltFiller.start();
+        } else {
+            this.saltRing = null;
+            this.saltFiller = null;
+        }
+    }
+
+    /**
+     * @return a new base64url encoded salt for an SD-JWT disclosure
+     */
+    public String nextSalt() {
+        if (saltRing != null) {
+            String salt = saltRing.poll();
+            if (saltRing.isBelowRefillMark()) {
+                LockSupport.unpark(saltFiller);
+            }
+            if (salt != null) {
+                return salt;
+            }
+        }
+        return generateSalt();
+    }
+
+    /**
+     * @return a version 4 UUID, as {@link UUID#randomUUID()} but without the shared random number generator
+     */
+    public UUID randomUUID() {
+        byte[] bytes = nextBytes(16);
+        bytes[6] = (byte) ((bytes[6] & 0x0f) | 0x40); // version 4
+        bytes[8] = (byte) ((bytes[8] & 0x3f) | 0x80); // IETF variant
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i] & 0xff);
+            lsb = (lsb << 8) | (bytes[i + 8] & 0xff);
+        }
+        return new UUID(msb, lsb);
+    }
+
+    public byte[] nextBytes(int length) {
+        byte[] bytes = new byte[length];
+        THREAD_RANDOM.get().nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param bound upper bound, exclusive
+     * @return a uniformly distributed random number between 0 and bound
+     */
+    public int nextInt(int bound) {
+        return THREAD_RANDOM.get().nextInt(bound);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (saltFiller != null) {
+            saltFiller.interrupt();
+        }
+    }
+
+    private String generateSalt() {
+        return BASE64URL_ENCODER.encodeToString(nextBytes(SALT_LENGTH));
+    }
+
+    private void fillSaltRing() {
+        while (!Thread.currentThread().isInterrupted()) {
+            while (saltRing.offer(generateSalt())) {
+                // fill until the ring is full
+            }
+            // Woken up again by consumers once the ring runs low
+            LockSupport.park(this);
+        }
+    }
+
+    private static SecureRandom createDrbg() {
+        try {
+            return SecureRandom.getInstance("DRBG", DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+        } catch (NoSuchAlgorithmException e) {
+            log.warn("DRBG is not available, falling back to the default SecureRandom");
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * Bounded ring buffer with a single producer and many consumers, without locks.
+     * <p>
+     * Consumers claim a slot by advancing the head and take its value with an atomic swap,
+     * so every salt is handed out at most once. If a claimed slot is empty, e.g. because the producer has not
+     * published it yet, the consumer gets nothing and generates the salt itself.
+     * </p>
+     */
+    static final class SaltRing {
+        private final AtomicReferenceArray<String> slots;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        SaltRing(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        /**
+         * Only to be called by the single producer
+         *
+         * @return false if the ring is full
+         */
+        boolean offer(String salt) {
+            long t = tail.get();
+            if (t - head.get() >= slots.length() || !slots.compareAndSet((int) (t & mask), null, salt)) {
+                return false;
+            }
+            tail.lazySet(t + 1);
+            return true;
+        }
+
+        String poll() {
+            long h;
+            do {
+                h = head.get();
+                if (h >= tail.get()) {
+                    return null;
+                }
+            } while (!head.compareAndSet(h, h + 1));
+            return slots.getAndSet((int) (h & mask), null);
+        }
+
+        boolean isBelowRefillMark() {
+            return tail.get() - head.get() < slots.length() / 2;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Getter;
+
+/**
+ * Range of status list indices reserved by this instance, handed out without locking.
+ */
+final class StatusListIndexBlock {
+
+    @Getter
+    private final int start;
+    @Getter
+    private final int end;
+    /**
+     * Order in which the indices are handed out, null for ascending order
+     */
+    private final int[] order;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private StatusListIndexBlock(int start, int end, int[] order) {
+        this.start = start;
+        this.end = end;
+        this.order = order;
+    }
+
+    static StatusListIndexBlock ascending(int start, int end) {
+        return new StatusListIndexBlock(start, end, null);
+    }
+
+    /**
+     * Shuffles the indices with Fisher-Yates
+     */
+    static StatusListIndexBlock shuffled(int start, int end, SecureRandomProvider secureRandomProvider) {
+        var order = new int[end - start];
+        for (int i = 0; i < order.length; i++) {
+            int j = secureRandomProvider.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = start + i;
+        }
+        return new StatusListIndexBlock(start, end, order);
+    }
+
+    /**
+     * @return the next index of the block or -1 if the block is exhausted
+     */
+    int next() {
+        int size = end - start;
+        // Checked first, so threads spinning on an exhausted block do not overflow the cursor
+        if (cursor.get() >= size) {
+            return -1;
+        }
+        int position = cursor.getAndIncrement();
+        if (position >= size) {
+            return -1;
+        }
+        return order == null ? start + position : order[position];
+    }
+
+    /**
+     * Exhausts the block, so no further indices are handed out
+     *
+     * @return the first index of the unused range at the end of the block, end if there is none
+     */
+    int close() {
+        int handedOut = Math.min(cursor.getAndSet(end - start), end - start);
+        if (order == null) {
+            return start + handedOut;
+        }
+        // Unused indices of a shuffled block are scattered, only an untouched block can be returned
+        return handedOut == 0 ? start : end;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.StatusListIndexProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Allocates indices of status lists for new credentials.
+ * <p>
+ * Instead of incrementing the next free index of the status list for every credential, which would serialize all
+ * issuance of the cluster on a single row, every instance reserves blocks of indices with one atomic update and
+ * hands them out without locking. The unused rest of the current blocks is returned on shutdown, if no other
+ * instance reserved indices in the meantime.
+ * </p>
+ * <p>
+ * Not used by the issuance yet: the indices of credential offers are still assigned by the issuer agent management,
+ * which owns the status list table. Until the allocation moves here, nothing calls {@link #allocateIndex(UUID)}, so the
+ * service is only created with {@code application.status-list-index.enabled=true}.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "application.status-list-index.enabled", havingValue = "true")
+@Slf4j
+public class StatusListIndexService {
+
+    private final StatusListRepository statusListRepository;
+    private final SecureRandomProvider secureRandomProvider;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final boolean shuffled;
+    private final Map<UUID, AtomicReference<StatusListIndexBlock>> currentBlocks = new ConcurrentHashMap<>();
+
+    public StatusListIndexService(StatusListRepository statusListRepository,
+                                  StatusListIndexProperties statusListIndexProperties,
+                                  SecureRandomProvider secureRandomProvider,
+                                  PlatformTransactionManager transactionManager) {
+        this.statusListRepository = statusListRepository;
+        this.secureRandomProvider = secureRandomProvider;
+        // Reservations commit on their own, so the status list row is only locked for the update itself
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = statusListIndexProperties.getBlockSize();
+        this.shuffled = statusListIndexProperties.isShuffled();
+    }
+
+    /**
+     * @param statusListId id of the status list
+     * @return an index of the status list which was not handed out before
+     * @throws CredentialException if the status list has no free indices left
+     */
+    public int allocateIndex(UUID statusListId) {
+        var current = currentBlocks.computeIfAbsent(statusListId, id -> new AtomicReference<>());
+        while (true) {
+            var block = current.get();
+            if (block != null) {
+                int index = block.next();
+                if (index >= 0) {
+                    return index;
+                }
+            }
+            replaceBlock(statusListId, current, block);
+        }
+    }
+
+    /**
+     * Returns the unused indices of the current blocks to their status lists
+     */
+    @PreDestroy
+    public void releaseReservedIndices() {
+        currentBlocks.forEach((statusListId, current) -> {
+            var block = current.getAndSet(null);
+            if (block == null) {
+                return;
+            }
+            int unusedStart = block.close();
+            if (unusedStart == block.getEnd()) {
+                return;
+            }
+            Integer released = transactionTemplate.execute(status ->
+                    statusListRepository.releaseIndices(statusListId, unusedStart, block.getEnd()));
+            if (released == null || released == 0) {
+                log.info("Indices {} to {} of status list {} stay unused as further indices were reserved",
+                        unusedStart, block.getEnd(), statusListId);
+            }
+        });
+    }
+
+    /**
+     * Only one thread reserves a new block, the others retry with the block it reserved
+     */
+    private void replaceBlock(UUID statusListId, AtomicReference<StatusListIndexBlock> current, StatusListIndexBlock exhausted) {
+        synchronized (current) {
+            if (current.get() == exhausted) {
+                current.set(reserveBlock(statusListId));
+            }
+        }
+    }
+
+    private StatusListIndexBlock reserveBlock(UUID statusListId) {
+        int count = blockSize;
+        while (true) {
+            final int requested = count;
+            Integer end = transactionTemplate.execute(status ->
+                    statusListRepository.reserveIndices(statusListId, requested) == 1
+                            ? statusListRepository.findNextFreeIndex(statusListId).orElse(null)
+                            : null);
+            if (end != null) {
+                log.debug("Reserved indices {} to {} of status list {}", end - requested, end, statusListId);
+                return shuffled
+                        ? StatusListIndexBlock.shuffled(end - requested, end, secureRandomProvider)
+                        : StatusListIndexBlock.ascending(end - requested, end);
+            }
+            // Less than a block is left, so the rest of the status list is reserved
+            int remaining = statusListRepository.findRemainingIndices(statusListId)
+                    .orElseThrow(() -> new CredentialException(String.format("Status list %s not found", statusListId)));
+            if (remaining <= 0) {
+                throw new CredentialException(String.format("Status list %s has no free indices left", statusListId));
+            }
+            count = Math.min(count, remaining);
+        }
+    }
+}
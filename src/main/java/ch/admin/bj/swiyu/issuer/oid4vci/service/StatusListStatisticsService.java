@@ -0,0 +1,111 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.api.StatusListIndicesDto;
+import ch.admin.bj.swiyu.issuer.oid4vci.api.StatusListStatisticsDto;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.DecodedStatusListCache;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusList;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListRepository;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.TokenStatusListToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Status counts of the status lists for monitoring.
+ * <p>
+ * The counts are computed on the words of the status list bitstring instead of reading every entry on its own.
+ * Decoded status lists are taken from the {@link DecodedStatusListCache}, so repeated queries do not inflate them again.
+ * </p>
+ */
+@Service
+@Slf4j
+public class StatusListStatisticsService {
+
+    public static final int DEFAULT_INDEX_LIMIT = 1000;
+    public static final int MAX_INDEX_LIMIT = 100_000;
+
+    private final StatusListRepository statusListRepository;
+    private final DecodedStatusListCache decodedStatusListCache;
+
+    public StatusListStatisticsService(StatusListRepository statusListRepository, DecodedStatusListCache decodedStatusListCache) {
+        this.statusListRepository = statusListRepository;
+        this.decodedStatusListCache = decodedStatusListCache;
+    }
+
+    @Transactional(readOnly = true)
+    public List<StatusListStatisticsDto> getStatistics() {
+        return statusListRepository.findAll().stream().map(this::toStatistics).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<StatusListStatisticsDto> getStatistics(UUID statusListId) {
+        return statusListRepository.findById(statusListId).map(this::toStatistics);
+    }
+
+    /**
+     * @param statusListId id of the status list
+     * @param status       the status to search for
+     * @param fromIdx      index to start the search at, inclusive
+     * @param limit        maximum number of indices, at most {@link #MAX_INDEX_LIMIT}
+     * @return the indices having the status, empty if there is no such status list or the status does not fit its bits
+     */
+    @Transactional(readOnly = true)
+    public Optional<StatusListIndicesDto> getIndicesWithStatus(UUID statusListId, int status, int fromIdx, int limit) {
+        return statusListRepository.findById(statusListId)
+                .map(this::decode)
+                .filter(token -> status >= 0 && status < (1 << token.getBits()))
+                .map(token -> {
+                    var indices = token.getIndicesWithStatus(status, fromIdx, Math.min(limit, MAX_INDEX_LIMIT));
+                    Integer nextFrom = indices.length == Math.min(limit, MAX_INDEX_LIMIT) && indices.length > 0
+                            ? indices[indices.length - 1] + 1
+                            : null;
+                    return new StatusListIndicesDto(statusListId, status, Arrays.stream(indices).boxed().toList(), nextFrom);
+                });
+    }
+
+    private StatusListStatisticsDto toStatistics(StatusList statusList) {
+        var token = decode(statusList);
+        var counts = token.getStatusHistogram();
+        var histogram = new TreeMap<Integer, Long>();
+        for (int status = 0; status < counts.length; status++) {
+            if (counts[status] > 0) {
+                histogram.put(status, counts[status]);
+            }
+        }
+        long revoked = token.countRevoked();
+        int assigned = statusList.getNextFreeIndex();
+        return new StatusListStatisticsDto(
+                statusList.getId(),
+                statusList.getUri(),
+                token.getBits(),
+                statusList.getMaxLength(),
+                assigned,
+                revoked,
+                token.countSuspended(),
+                assigned > 0 ? (double) revoked / assigned : 0,
+                histogram);
+    }
+
+    private TokenStatusListToken decode(StatusList statusList) {
+        try {
+            return new TokenStatusListToken(decodedStatusListCache.getBitstring(statusList));
+        } catch (IOException e) {
+            log.warn("Status list {} could not be decoded", statusList.getId(), e);
+            throw new CredentialException(String.format("Status list %s could not be decoded", statusList.getId()), e);
+        }
+    }
+}
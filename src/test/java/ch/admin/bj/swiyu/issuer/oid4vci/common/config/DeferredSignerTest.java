@@ -0,0 +1,73 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStoreException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeferredSignerTest {
+
+    private static final JWSHeader HEADER = new JWSHeader(JWSAlgorithm.ES256);
+    private static final byte[] SIGNING_INPUT = "header.payload".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    void givenKeyLoading_whenLoaded_thenReadyAndSigning() throws Exception {
+        var key = new ECKeyGenerator(Curve.P_256).generate();
+        var release = new CountDownLatch(1);
+        var signer = DeferredSigner.load("pkcs11", () -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return new ECDSASigner(key);
+        });
+
+        assertFalse(signer.isReady());
+        assertTrue(signer.getFailure().isEmpty());
+
+        release.countDown();
+        var signature = signer.sign(HEADER, SIGNING_INPUT);
+
+        assertTrue(signer.isReady());
+        assertTrue(new ECDSAVerifier(key.toPublicJWK()).verify(HEADER, SIGNING_INPUT, signature));
+    }
+
+    @Test
+    void givenKeyLoadingFailed_whenSigning_thenFailureReported() {
+        var signer = DeferredSigner.load("securosys", () -> {
+            throw new KeyStoreException("HSM not reachable");
+        });
+
+        var ex = assertThrows(JOSEException.class, () -> signer.sign(HEADER, SIGNING_INPUT));
+
+        assertInstanceOf(KeyStoreException.class, ex.getCause());
+        assertFalse(signer.isReady());
+        assertInstanceOf(KeyStoreException.class, signer.getFailure().orElseThrow());
+    }
+
+    @Test
+    void givenLoadedSigner_whenCreated_thenReadyImmediately() throws JOSEException {
+        ECKey key = new ECKeyGenerator(Curve.P_256).generate();
+
+        var signer = DeferredSigner.of("key", new ECDSASigner(key));
+
+        assertTrue(signer.isReady());
+        assertEquals("key", signer.getKeyManagementMethod());
+        assertTrue(signer.supportedJWSAlgorithms().contains(JWSAlgorithm.ES256));
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UuidUtilsTest {
+
+    @Test
+    void givenCanonicalUuid_whenParsed_thenSameAsUuidFromString() {
+        for (int i = 0; i < 1000; i++) {
+            var uuid = UUID.randomUUID();
+            assertEquals(uuid, UuidUtils.parseOrNull(uuid.toString()));
+            assertEquals(uuid, UuidUtils.parseOrNull(uuid.toString().toUpperCase()));
+        }
+        assertEquals(new UUID(-1, -1), UuidUtils.parseOrNull("ffffffff-ffff-ffff-ffff-ffffffffffff"));
+        assertEquals(new UUID(0, 0), UuidUtils.parseOrNull("00000000-0000-0000-0000-000000000000"));
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {
+            "",
+            "not-a-uuid",
+            "0f3c1e2a-8b4d-4c6e-9f1a-2b3c4d5e6f7",
+            "0f3c1e2a-8b4d-4c6e-9f1a-2b3c4d5e6f7a0",
+            "0f3c1e2a08b4d-4c6e-9f1a-2b3c4d5e6f7a",
+            "0f3c1e2a-8b4d-4c6e-9f1g-2b3c4d5e6f7a",
+            "0f3c1e2a-8b4d-4c6e-9f1a-2b3c4d5e６f7a",
+            "1-1-1-1-1"
+    })
+    void givenMalformedValue_whenParsed_thenNull(String value) {
+        assertNull(UuidUtils.parseOrNull(value));
+    }
+}
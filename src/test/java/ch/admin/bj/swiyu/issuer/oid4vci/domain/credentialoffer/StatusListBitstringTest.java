@@ -0,0 +1,142 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusListBitstringTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    void givenRandomStatuses_whenExported_thenSameBytesAsBytewiseStatusList(int bits) {
+        var random = new Random(bits);
+        // Deliberately not a multiple of the word size
+        var byteLength = 1003;
+        var bitstring = new StatusListBitstring(bits, byteLength);
+        var expected = new byte[byteLength];
+        for (int i = 0; i < 5000; i++) {
+            var idx = random.nextInt(bitstring.getCapacity());
+            var status = random.nextInt(1 << bits);
+            bitstring.set(idx, status);
+            setBytewise(expected, bits, idx, status);
+        }
+
+        assertArrayEquals(expected, bitstring.toByteArray());
+        var loaded = StatusListBitstring.fromBytes(bits, expected);
+        for (int idx = 0; idx < bitstring.getCapacity(); idx++) {
+            assertEquals(getBytewise(expected, bits, idx), loaded.get(idx));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    void givenRandomStatuses_whenCountedAndSearched_thenSameAsEntryByEntry(int bits) {
+        var random = new Random(bits);
+        var bitstring = new StatusListBitstring(bits, 517);
+        var indices = random.ints(bitstring.getCapacity() / 3, 0, bitstring.getCapacity()).toArray();
+        bitstring.setAll(indices, 1);
+        bitstring.set(bitstring.getCapacity() - 1, 1);
+
+        for (int status = 0; status < 1 << bits; status++) {
+            long expectedCount = 0;
+            for (int idx = 0; idx < bitstring.getCapacity(); idx++) {
+                expectedCount += bitstring.get(idx) == status ? 1 : 0;
+            }
+            assertEquals(expectedCount, bitstring.count(status));
+        }
+        for (int from = 0; from < bitstring.getCapacity(); from++) {
+            int expectedFree = -1;
+            for (int idx = from; idx < bitstring.getCapacity(); idx++) {
+                if (bitstring.get(idx) == 0) {
+                    expectedFree = idx;
+                    break;
+                }
+            }
+            assertEquals(expectedFree, bitstring.nextFreeIndex(from));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    void givenFullList_whenSearchingFreeIndex_thenNone(int bits) {
+        var bitstring = new StatusListBitstring(bits, 13);
+        for (int idx = 0; idx < bitstring.getCapacity(); idx++) {
+            bitstring.set(idx, 1);
+        }
+
+        assertEquals(-1, bitstring.nextFreeIndex(0));
+        assertEquals(0, bitstring.count(0));
+        assertEquals(bitstring.getCapacity(), bitstring.count(1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    void givenRandomStatuses_whenHistogramAndIndicesQueried_thenSameAsEntryByEntry(int bits) {
+        var random = new Random(bits);
+        // Length is not a multiple of the word size, so the last word is partially used
+        var bitstring = new StatusListBitstring(bits, 1003);
+        for (int i = 0; i < bitstring.getCapacity() / 3; i++) {
+            bitstring.set(random.nextInt(bitstring.getCapacity()), random.nextInt(1 << bits));
+        }
+        for (int i = 0; i < 50; i++) {
+            bitstring.set(random.nextInt(bitstring.getCapacity()), 1);
+        }
+
+        var expectedHistogram = new long[1 << bits];
+        var expectedRevoked = new ArrayList<Integer>();
+        for (int idx = 0; idx < bitstring.getCapacity(); idx++) {
+            expectedHistogram[bitstring.get(idx)]++;
+            if (bitstring.get(idx) == 1) {
+                expectedRevoked.add(idx);
+            }
+        }
+
+        assertArrayEquals(expectedHistogram, bitstring.histogram());
+        assertEquals(expectedRevoked, boxed(bitstring.indicesOf(1, 0, Integer.MAX_VALUE)));
+        assertEquals(expectedRevoked.subList(0, 10), boxed(bitstring.indicesOf(1, 0, 10)));
+        int from = expectedRevoked.get(10) + 1;
+        assertEquals(expectedRevoked.subList(11, 16), boxed(bitstring.indicesOf(1, from, 5)));
+        assertEquals(0, bitstring.indicesOf(1, bitstring.getCapacity(), 10).length);
+        assertEquals(0, bitstring.indicesOf(1, -1, 10).length);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 8})
+    void givenInvalidArguments_whenSet_thenRejected(int bits) {
+        var bitstring = new StatusListBitstring(bits, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> bitstring.set(0, 1 << bits));
+        assertThrows(IllegalArgumentException.class, () -> bitstring.set(0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> bitstring.set(bitstring.getCapacity(), 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> bitstring.get(-1));
+    }
+
+    private static List<Integer> boxed(int[] indices) {
+        return Arrays.stream(indices).boxed().toList();
+    }
+
+    /**
+     * Reference implementation working on the bytes of the status list
+     */
+    private static void setBytewise(byte[] statusList, int bits, int idx, int status) {
+        int shift = (idx * bits) % 8;
+        int mask = ((1 << bits) - 1) << shift;
+        statusList[idx * bits / 8] = (byte) ((statusList[idx * bits / 8] & ~mask) | (status << shift));
+    }
+
+    private static int getBytewise(byte[] statusList, int bits, int idx) {
+        return (statusList[idx * bits / 8] >> ((idx * bits) % 8)) & ((1 << bits) - 1);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusListCodecTest {
+
+    @Test
+    void givenSpecExample_whenDecoded_thenStatusListBytes() throws IOException {
+        // Example of https://www.ietf.org/archive/id/draft-ietf-oauth-status-list-02.html#name-further-examples
+        var decoded = StatusListCodec.decode("eNo76fITAAPfAgc", StatusListCodec.DEFAULT_MAX_DECODED_SIZE);
+
+        assertArrayEquals(new byte[]{(byte) 0xc9, 0x44, (byte) 0xf9}, decoded);
+    }
+
+    @Test
+    void givenStatusList_whenEncoded_thenSameAsDeflaterOutputStream() throws IOException {
+        var statusList = new byte[300_000];
+        var random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            statusList[random.nextInt(statusList.length)] = (byte) random.nextInt();
+        }
+
+        var encoded = StatusListCodec.encode(statusList);
+
+        assertEquals(deflateLikeBefore(statusList), encoded);
+        assertArrayEquals(statusList, StatusListCodec.decode(encoded, statusList.length));
+        // The codec is reused for the next list of the thread
+        assertArrayEquals(new byte[10], StatusListCodec.decode(StatusListCodec.encode(new byte[10]), 10));
+    }
+
+    @Test
+    void givenDirectBuffer_whenDecodedIntoIt_thenStatusListBytesWithoutHeapCopy() throws IOException {
+        var statusList = new byte[100_000];
+        new Random(7).nextBytes(statusList);
+        var target = ByteBuffer.allocateDirect(statusList.length + 8).position(4);
+
+        int length = StatusListCodec.decode(StatusListCodec.encode(statusList), target);
+
+        assertEquals(statusList.length, length);
+        var decoded = new byte[length];
+        target.get(4, decoded);
+        assertArrayEquals(statusList, decoded);
+        assertThrows(ZipException.class, () -> StatusListCodec.decode(StatusListCodec.encode(statusList), ByteBuffer.allocate(1000)));
+    }
+
+    @Test
+    void givenDecompressionBomb_whenDecoded_thenRejected() {
+        // 10 MB of zeros compress to about 10 KB
+        var bomb = StatusListCodec.encode(new byte[10 * 1024 * 1024]);
+
+        var ex = assertThrows(ZipException.class, () -> StatusListCodec.decode(bomb, 1024 * 1024));
+        assertTrue(ex.getMessage().contains("maximum size"));
+    }
+
+    @Test
+    void givenInvalidData_whenDecoded_thenIOException() {
+        var truncated = StatusListCodec.encode(new byte[1000]).substring(0, 8);
+
+        assertThrows(IOException.class, () -> StatusListCodec.decode(truncated, 1000));
+        assertThrows(IOException.class, () -> StatusListCodec.decode("not base64!", 1000));
+        assertThrows(IOException.class, () -> StatusListCodec.decode("AAAAAAAA", 1000));
+    }
+
+    private static String deflateLikeBefore(byte[] statusList) throws IOException {
+        var zlibOutput = new ByteArrayOutputStream();
+        try (var deflaterStream = new DeflaterOutputStream(zlibOutput, new Deflater(9))) {
+            deflaterStream.write(statusList);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(zlibOutput.toByteArray());
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusListCompressorTest {
+
+    @Test
+    void givenSingleBlock_whenEncoded_thenSameAsFullCompression() {
+        var bitstring = randomBitstring(2, 5_000, new Random(1));
+        var compressor = new StatusListCompressor(bitstring, StatusListCompressor.DEFAULT_BLOCK_SIZE);
+
+        assertEquals(StatusListCodec.encode(bitstring.toByteArray()), compressor.encode());
+    }
+
+    @Test
+    void givenEmptyStatusList_whenEncoded_thenSameAsFullCompression() {
+        var compressor = new StatusListCompressor(new StatusListBitstring(1, 0), 64);
+
+        assertEquals(StatusListCodec.encode(new byte[0]), compressor.encode());
+    }
+
+    @Test
+    void givenManyBlocks_whenEntriesChanged_thenOnlyDirtyBlocksRecompressed() throws IOException {
+        var random = new Random(2);
+        // Length is not a multiple of the block size, so the last block is shorter
+        var bitstring = randomBitstring(2, 10_003, random);
+        var compressor = new StatusListCompressor(bitstring, 1024);
+        assertEquals(10, compressor.dirtyBlockCount());
+        assertDecodesTo(bitstring, compressor.encode());
+        assertEquals(0, compressor.dirtyBlockCount());
+
+        // Entry 4096 is the first entry of the second block, the last entry is in the last block
+        int lastIdx = bitstring.getCapacity() - 1;
+        bitstring.set(4096, 3);
+        bitstring.set(lastIdx, 1);
+        compressor.markDirty(new int[]{4096, lastIdx});
+        assertEquals(2, compressor.dirtyBlockCount());
+        assertDecodesTo(bitstring, compressor.encode());
+
+        for (int i = 0; i < 100; i++) {
+            int idx = random.nextInt(bitstring.getCapacity());
+            bitstring.set(idx, random.nextInt(4));
+            compressor.markDirty(idx);
+        }
+        assertDecodesTo(bitstring, compressor.encode());
+    }
+
+    @Test
+    void givenTwoSequences_whenAdler32Combined_thenSameAsChecksumOfConcatenation() {
+        var random = new Random(3);
+        for (int length : new int[]{0, 1, 65520, 65521, 65522, 200_000}) {
+            var first = new byte[random.nextInt(100_000)];
+            var second = new byte[length];
+            random.nextBytes(first);
+            random.nextBytes(second);
+
+            var combined = StatusListCompressor.combineAdler32(adler32(first), adler32(second), second.length);
+
+            var concatenated = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, concatenated, first.length, second.length);
+            assertEquals(adler32(concatenated), combined);
+        }
+    }
+
+    @Test
+    void givenMultiMegabyteStatusList_whenSingleEntriesRevoked_thenIncrementalEncodingDecodesToStatusList() throws IOException {
+        // 10 mio entries with 2 bits, like TokenStatusListTokenTest#testLargeStatusList
+        var statusList = new TokenStatusListToken(2, 2_500_000);
+        var random = new Random(4);
+        for (int i = 0; i < 9_000_000; i++) {
+            statusList.setStatus(random.nextInt(10_000_000), random.nextInt(1, 3));
+        }
+        statusList.getStatusListData();
+
+        for (int run = 0; run < 3; run++) {
+            statusList.setStatus(random.nextInt(10_000_000), 1);
+
+            var lst = statusList.getStatusListData();
+
+            assertArrayEquals(statusList.getStatusList(), StatusListCodec.decode(lst, 2_500_000));
+        }
+    }
+
+    /**
+     * Compares the incremental encoding after a single revocation with compressing the whole status list.
+     * Run with: mvn test -Pbenchmark
+     */
+    @Test
+    @Tag("benchmark")
+    void givenMultiMegabyteStatusList_whenSingleEntryRevoked_thenReportsIncrementalAndFullCompression() throws IOException {
+        var statusList = new TokenStatusListToken(2, 2_500_000);
+        var random = new Random(4);
+        for (int i = 0; i < 9_000_000; i++) {
+            statusList.setStatus(random.nextInt(10_000_000), random.nextInt(1, 3));
+        }
+        statusList.getStatusListData();
+
+        long fullCompression = Long.MAX_VALUE;
+        long incrementalCompression = Long.MAX_VALUE;
+        for (int run = 0; run < 10; run++) {
+            statusList.setStatus(random.nextInt(10_000_000), 1);
+
+            long start = System.nanoTime();
+            StatusListCodec.encode(statusList.getStatusList());
+            fullCompression = Math.min(fullCompression, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            statusList.getStatusListData();
+            incrementalCompression = Math.min(incrementalCompression, System.nanoTime() - start);
+        }
+
+        System.out.printf("Status list of 10 mio 2-bit entries, one entry revoked: full compression %d ms, incremental %d ms (%s %s)%n",
+                fullCompression / 1_000_000, incrementalCompression / 1_000_000,
+                System.getProperty("java.vm.name"), System.getProperty("java.runtime.version"));
+    }
+
+    private static StatusListBitstring randomBitstring(int bits, int byteLength, Random random) {
+        var bitstring = new StatusListBitstring(bits, byteLength);
+        for (int i = 0; i < bitstring.getCapacity() / 4; i++) {
+            bitstring.set(random.nextInt(bitstring.getCapacity()), random.nextInt(1 << bits));
+        }
+        return bitstring;
+    }
+
+    private static void assertDecodesTo(StatusListBitstring bitstring, String lst) throws IOException {
+        assertArrayEquals(bitstring.toByteArray(), StatusListCodec.decode(lst, bitstring.getByteLength()));
+    }
+
+    private static long adler32(byte[] data) {
+        var adler32 = new Adler32();
+        adler32.update(data);
+        return adler32.getValue();
+    }
+}
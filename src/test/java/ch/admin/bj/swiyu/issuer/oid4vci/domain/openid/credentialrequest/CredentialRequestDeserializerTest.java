@@ -0,0 +1,114 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofJwt;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CredentialRequestDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Test
+    void givenFullRequest_whenDeserialized_thenAllParametersBound() throws Exception {
+        var json = """
+                {
+                  "format": "vc+sd-jwt",
+                  "proof": {"proof_type": "jwt", "jwt": "header.payload.signature", "unused": {"a": [1, 2]}},
+                  "credential_response_encryption": {
+                    "jwk": {"kty": "EC", "crv": "P-256", "x": "x", "y": "y", "key_ops": ["encrypt"]},
+                    "alg": "ECDH-ES",
+                    "enc": "A128CBC-HS256"
+                  },
+                  "credential_identifier": "ignored"
+                }
+                """;
+
+        var request = objectMapper.readValue(json, CredentialRequest.class);
+
+        assertEquals("vc+sd-jwt", request.getFormat());
+        assertEquals("jwt", request.getProof().getProofType());
+        assertEquals("header.payload.signature", request.getProof().getJwt());
+        assertInstanceOf(ProofJwt.class, request.getProof(10).orElseThrow());
+        var encryption = request.getCredentialResponseEncryption();
+        assertEquals("ECDH-ES", encryption.getAlg());
+        assertEquals("A128CBC-HS256", encryption.getEnc());
+        assertEquals("EC", encryption.getJwk().get("kty"));
+        assertEquals(List.of("encrypt"), encryption.getJwk().get("key_ops"));
+    }
+
+    @Test
+    void givenRequestWithoutProof_whenDeserialized_thenNoProof() throws Exception {
+        var request = objectMapper.readValue("{\"format\": \"vc+sd-jwt\", \"proof\": null}", CredentialRequest.class);
+
+        assertNull(request.getProof());
+        assertTrue(request.getProof(10).isEmpty());
+        assertNull(request.getCredentialResponseEncryption());
+    }
+
+    @Test
+    void givenEmptyProof_whenDeserialized_thenValidAsNoProof() throws Exception {
+        var request = objectMapper.readValue("{\"format\": \"vc+sd-jwt\", \"proof\": {}}", CredentialRequest.class);
+
+        assertTrue(request.getProof().isEmpty());
+        assertTrue(new CredentialRequestProofTypeValidator().isValid(request.getProof(), null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"{\"cwt\": \"cwt\"}", "{\"jwt_typo\": \"header.payload.signature\"}", "{\"proof_type\": null}"})
+    void givenProofWithoutProofType_whenDeserialized_thenInvalid(String proof) throws Exception {
+        var json = String.format("{\"format\": \"vc+sd-jwt\", \"proof\": %s}", proof);
+
+        var request = objectMapper.readValue(json, CredentialRequest.class);
+
+        assertFalse(request.getProof().isEmpty());
+        assertFalse(new CredentialRequestProofTypeValidator().isValid(request.getProof(), null));
+    }
+
+    @Test
+    void givenDeeplyNestedUnknownParameter_whenDeserialized_thenRejected() {
+        var nested = "[".repeat(CredentialRequestDeserializer.MAX_NESTING_DEPTH) + "]".repeat(CredentialRequestDeserializer.MAX_NESTING_DEPTH);
+        var json = String.format("{\"format\": \"vc+sd-jwt\", \"unknown\": %s}", nested);
+
+        var ex = assertThrows(MismatchedInputException.class, () -> objectMapper.readValue(json, CredentialRequest.class));
+        assertTrue(ex.getMessage().contains("nested deeper"));
+    }
+
+    @Test
+    void givenMaximalNesting_whenDeserialized_thenAccepted() throws Exception {
+        var depth = CredentialRequestDeserializer.MAX_NESTING_DEPTH - 1;
+        var nested = "[".repeat(depth) + "]".repeat(depth);
+        var json = String.format("{\"format\": \"vc+sd-jwt\", \"unknown\": %s}", nested);
+
+        assertEquals("vc+sd-jwt", objectMapper.readValue(json, CredentialRequest.class).getFormat());
+    }
+
+    @Test
+    void givenDeeplyNestedJwk_whenDeserialized_thenRejected() {
+        var nested = "[".repeat(CredentialRequestDeserializer.MAX_NESTING_DEPTH) + "]".repeat(CredentialRequestDeserializer.MAX_NESTING_DEPTH);
+        var json = String.format("{\"credential_response_encryption\": {\"jwk\": {\"x5c\": %s}}}", nested);
+
+        assertThrows(MismatchedInputException.class, () -> objectMapper.readValue(json, CredentialRequest.class));
+    }
+
+    @Test
+    void givenObjectAsProofJwt_whenDeserialized_thenRejected() {
+        var json = "{\"proof\": {\"proof_type\": \"jwt\", \"jwt\": {\"a\": 1}}}";
+
+        assertThrows(MismatchedInputException.class, () -> objectMapper.readValue(json, CredentialRequest.class));
+    }
+}
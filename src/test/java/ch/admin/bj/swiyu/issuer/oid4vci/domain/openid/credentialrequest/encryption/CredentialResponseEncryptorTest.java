@@ -0,0 +1,99 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.encryption;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.Oid4vcException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialResponseEncryption;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerCredentialResponseEncryption;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.crypto.ECDHDecrypter;
+import com.nimbusds.jose.crypto.RSADecrypter;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import org.junit.jupiter.api.Test;
+
+class CredentialResponseEncryptorTest {
+
+    private final CredentialResponseEncryptor encryptor = new CredentialResponseEncryptor(offered(false, "RSA-OAEP-256", "ECDH-ES+A128KW"));
+
+    @Test
+    void givenEcKey_whenEncrypted_thenHolderCanDecrypt() throws Exception {
+        var holderKey = new ECKeyGenerator(Curve.P_256).generate();
+
+        var encryption = encryptor.prepare(requested("ECDH-ES+A128KW", holderKey.toPublicJWK())).orElseThrow();
+        var jwe = JWEObject.parse(new String(encryption.encrypt("{\"credential\":\"vc\"}".getBytes(StandardCharsets.UTF_8)), StandardCharsets.US_ASCII));
+
+        jwe.decrypt(new ECDHDecrypter(holderKey));
+        assertEquals("{\"credential\":\"vc\"}", jwe.getPayload().toString());
+    }
+
+    @Test
+    void givenRsaKey_whenEncryptedTwice_thenDifferentContentEncryptionKeys() throws Exception {
+        var holderKey = new RSAKeyGenerator(2048).generate();
+        var requested = requested("RSA-OAEP-256", holderKey.toPublicJWK());
+
+        var first = JWEObject.parse(new String(encryptor.prepare(requested).orElseThrow().encrypt("payload".getBytes(StandardCharsets.UTF_8)), StandardCharsets.US_ASCII));
+        var second = JWEObject.parse(new String(encryptor.prepare(requested).orElseThrow().encrypt("payload".getBytes(StandardCharsets.UTF_8)), StandardCharsets.US_ASCII));
+
+        assertNotEquals(first.getEncryptedKey(), second.getEncryptedKey());
+        second.decrypt(new RSADecrypter(holderKey));
+        assertEquals("payload", second.getPayload().toString());
+    }
+
+    @Test
+    void givenKeyNotMatchingAlgorithm_whenPrepared_thenRejected() throws Exception {
+        var holderKey = new ECKeyGenerator(Curve.P_256).generate();
+
+        assertThrows(Oid4vcException.class, () -> encryptor.prepare(requested("RSA-OAEP-256", holderKey.toPublicJWK())));
+    }
+
+    @Test
+    void givenEncryptionNotRequested_whenPrepared_thenDependsOnRequirement() {
+        assertTrue(encryptor.prepare(null).isEmpty());
+        assertTrue(new CredentialResponseEncryptor(null).prepare(null).isEmpty());
+        var mandatory = new CredentialResponseEncryptor(offered(true, "RSA-OAEP-256"));
+        var ex = assertThrows(Oid4vcException.class, () -> mandatory.prepare(null));
+        assertEquals("Credential Response Encryption is mandatory.", ex.getMessage());
+    }
+
+    @Test
+    void givenNotOfferedCombination_whenPrepared_thenRejected() throws Exception {
+        var holderKey = new ECKeyGenerator(Curve.P_256).generate();
+
+        var ex = assertThrows(Oid4vcException.class, () -> encryptor.prepare(requested("ECDH-ES+A256KW", holderKey.toPublicJWK())));
+        assertEquals("Requested encryption is not offered. alg: ECDH-ES+A256KW , enc: A128CBC-HS256", ex.getMessage());
+    }
+
+    @Test
+    void givenUnsupportedAlgorithmOffered_whenCreated_thenConfigurationException() {
+        assertThrows(ConfigurationException.class, () -> new CredentialResponseEncryptor(offered(false, "dir")));
+    }
+
+    private static IssuerCredentialResponseEncryption offered(boolean required, String... algs) {
+        var offered = new IssuerCredentialResponseEncryption();
+        offered.setAlgValuesSupported(List.of(algs));
+        offered.setEncValuesSupported(List.of("A128CBC-HS256"));
+        offered.setEncRequired(required);
+        return offered;
+    }
+
+    private static CredentialResponseEncryption requested(String alg, JWK holderKey) {
+        var requested = new CredentialResponseEncryption();
+        requested.setAlg(alg);
+        requested.setEnc("A128CBC-HS256");
+        requested.setJwk(holderKey.toJSONObject());
+        return requested;
+    }
+}
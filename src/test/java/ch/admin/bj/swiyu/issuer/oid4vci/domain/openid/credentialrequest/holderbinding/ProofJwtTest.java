@@ -18,8 +18,7 @@ import org.junit.jupiter.api.Test;
 import java.time.Instant;
 import java.util.*;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ProofJwtTest {
 
@@ -128,6 +127,48 @@ public class ProofJwtTest {
         assertTrue(proofJwt.isValidHolderBinding("http://issuer.com", List.of("ES256"), offer));
     }
 
+    @Test
+    void givenSameDidJwkKeyTwice_whenHolderBindingValidate_thenPublicKeyIsBound() throws JOSEException {
+        var nonce = UUID.randomUUID();
+        var offer = createTestOffer(nonce);
+
+        for (int i = 0; i < 2; i++) {
+            String proof = TestUtils.createHolderProof(jwk, "http://issuer.com", nonce.toString(), ProofType.JWT.getClaimTyp(), true);
+            ProofJwt proofJwt = new ProofJwt(ProofType.JWT, proof);
+            assertTrue(proofJwt.isValidHolderBinding("http://issuer.com", List.of("ES256"), offer));
+            assertEquals(jwk.toPublicJWK().toJSONObject(), proofJwt.getBinding().toJSONObject());
+            assertFalse(proofJwt.getBinding().isPrivate());
+        }
+    }
+
+    @Test
+    void givenSameJwkWithOtherMembers_whenHolderBindingValidate_thenKeyOfProofIsBound() throws JOSEException {
+        var nonce = UUID.randomUUID();
+        var offer = createTestOffer(nonce);
+
+        for (var keyId : List.of("first-key-id", "second-key-id")) {
+            var holderKey = new ECKey.Builder(jwk).keyID(keyId).build();
+            String proof = TestUtils.createHolderProof(holderKey, "http://issuer.com", nonce.toString(), ProofType.JWT.getClaimTyp(), false);
+            ProofJwt proofJwt = new ProofJwt(ProofType.JWT, proof);
+            assertTrue(proofJwt.isValidHolderBinding("http://issuer.com", List.of("ES256"), offer));
+            assertEquals(holderKey.toPublicJWK().toJSONObject(), proofJwt.getBinding().toJSONObject());
+        }
+    }
+
+    @Test
+    void givenDidJwkWithLongMembers_whenHolderBindingValidate_thenPublicKeyIsBound() throws JOSEException {
+        var nonce = UUID.randomUUID();
+        var offer = createTestOffer(nonce);
+        var holderKey = new ECKey.Builder(jwk).keyID("k".repeat(8 * 1024)).build();
+
+        for (int i = 0; i < 2; i++) {
+            String proof = TestUtils.createHolderProof(holderKey, "http://issuer.com", nonce.toString(), ProofType.JWT.getClaimTyp(), true);
+            ProofJwt proofJwt = new ProofJwt(ProofType.JWT, proof);
+            assertTrue(proofJwt.isValidHolderBinding("http://issuer.com", List.of("ES256"), offer));
+            assertEquals(holderKey.toPublicJWK().toJSONObject(), proofJwt.getBinding().toJSONObject());
+        }
+    }
+
     private CredentialOffer createTestOffer(UUID nonce) {
         return new CredentialOffer(
                 UUID.randomUUID(),
@@ -0,0 +1,126 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.cache;
+
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.StatusListCacheProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.DecodedStatusListCache;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusList;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListType;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.TokenStatusListToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DecodedStatusListCacheTest {
+
+    private final UUID statusListId = UUID.randomUUID();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenInMemoryCache_whenStatusListRead_thenDecodedOncePerVersion() throws IOException {
+        assertDecodesVersions(new InMemoryStatusListCache());
+    }
+
+    @Test
+    void givenMappedFileCache_whenStatusListRead_thenDecodedOncePerVersion() throws IOException {
+        assertDecodesVersions(mappedFileCache());
+    }
+
+    @Test
+    void givenMappedFileCache_whenRestarted_thenExistingFileMappedAgain() throws IOException {
+        var statusList = statusList(token(1003, 3, 17, 42));
+        mappedFileCache().getBitstring(statusList);
+        var file = singleCacheFile();
+        var modified = Files.getLastModifiedTime(file);
+
+        var bitstring = mappedFileCache().getBitstring(statusList);
+
+        assertEquals(file, singleCacheFile());
+        assertEquals(modified, Files.getLastModifiedTime(file));
+        assertEquals(1, bitstring.get(17));
+        assertEquals(3, bitstring.count(1));
+        assertThrows(ReadOnlyBufferException.class, () -> bitstring.set(0, 1));
+    }
+
+    @Test
+    void givenCorruptFile_whenStatusListRead_thenFileWrittenAgain() throws IOException {
+        var statusList = statusList(token(100, 5));
+        mappedFileCache().getBitstring(statusList);
+        Files.write(singleCacheFile(), new byte[]{1, 2, 3});
+
+        var bitstring = mappedFileCache().getBitstring(statusList);
+
+        assertEquals(1, bitstring.get(5));
+        assertEquals(16 + 13 * Long.BYTES, Files.size(singleCacheFile()));
+    }
+
+    @Test
+    void givenStatusListNotMatchingItsEntries_whenStatusListRead_thenDecodedOnTheHeap() throws IOException {
+        var token = token(1003, 3, 17, 42);
+        for (var maxLength : new Integer[]{null, 100, 1003 * 4 + 64}) {
+            var bitstring = mappedFileCache().getBitstring(statusList(token, maxLength));
+
+            assertArrayEquals(token.getStatusList(), bitstring.toByteArray());
+            assertEquals(16 + 126 * Long.BYTES, Files.size(singleCacheFile()));
+            Files.delete(singleCacheFile());
+        }
+    }
+
+    private void assertDecodesVersions(DecodedStatusListCache cache) throws IOException {
+        var token = token(1003, 3, 17, 42);
+        var first = cache.getBitstring(statusList(token));
+        assertArrayEquals(token.getStatusList(), first.toByteArray());
+        assertSame(first, cache.getBitstring(statusList(token)));
+
+        token.setStatus(500, 2);
+        var second = cache.getBitstring(statusList(token));
+        assertNotSame(first, second);
+        assertEquals(2, second.get(500));
+        assertArrayEquals(token.getStatusList(), second.toByteArray());
+    }
+
+    private MappedFileStatusListCache mappedFileCache() {
+        var properties = new StatusListCacheProperties();
+        properties.setType(StatusListCacheProperties.StatusListCacheType.MAPPED_FILE);
+        properties.setDirectory(directory.toString());
+        return new MappedFileStatusListCache(properties);
+    }
+
+    private Path singleCacheFile() throws IOException {
+        try (var files = Files.list(directory)) {
+            var cacheFiles = files.toList();
+            assertEquals(1, cacheFiles.size());
+            return cacheFiles.getFirst();
+        }
+    }
+
+    private static TokenStatusListToken token(int byteLength, int... revoked) {
+        var token = new TokenStatusListToken(2, byteLength);
+        token.setStatus(revoked, 1);
+        return token;
+    }
+
+    private StatusList statusList(TokenStatusListToken token) {
+        return statusList(token, token.getStatusList().length * 4);
+    }
+
+    private StatusList statusList(TokenStatusListToken token, Integer maxLength) {
+        return new StatusList(statusListId, StatusListType.TOKEN_STATUS_LIST, Map.of("bits", 2), "https://localhost:8080/status",
+                token.getStatusListData(), 0, maxLength, Collections.emptySet());
+    }
+}
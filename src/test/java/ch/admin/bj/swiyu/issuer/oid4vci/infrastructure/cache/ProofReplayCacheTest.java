@@ -0,0 +1,110 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.cache;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ProofReplayCacheProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.holderbinding.ProofReplayCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+class ProofReplayCacheTest {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Test
+    void givenInMemoryCache_whenProofIsReused_thenRejected() {
+        assertRejectsReplays(inMemoryCache(1024));
+    }
+
+    @Test
+    void givenDatabaseCache_whenProofIsReused_thenRejected() {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:proof_replay;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "sa");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/common/V1_0_10__proof_replay_cache.sql")).execute(dataSource);
+        var cache = new DatabaseProofReplayCache(new JdbcTemplate(dataSource));
+        cache.verifyTable();
+
+        assertRejectsReplays(cache);
+    }
+
+    @Test
+    void givenMissingTable_whenVerifyTable_thenConfigurationException() {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:proof_replay_missing;DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "sa");
+        var cache = new DatabaseProofReplayCache(new JdbcTemplate(dataSource));
+
+        var exception = assertThrows(ConfigurationException.class, cache::verifyTable);
+        assertTrue(exception.getMessage().contains("proof_replay_cache"));
+    }
+
+    @Test
+    void givenExpiredProof_whenMarkAsUsedAgain_thenAccepted() {
+        var cache = inMemoryCache(1024);
+        var key = randomKey();
+
+        assertTrue(cache.markAsUsed(key, Instant.now().minusSeconds(1)));
+        assertFalse(cache.isKnown(key));
+        assertTrue(cache.markAsUsed(key, Instant.now().plusSeconds(60)));
+    }
+
+    @Test
+    void givenFloodOfProofs_whenMarkAsUsed_thenMemoryStaysBounded() {
+        var cache = inMemoryCache(1024);
+        var expiration = Instant.now().plusSeconds(60);
+
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(cache.markAsUsed(randomKey(), expiration));
+        }
+
+        assertEquals(1024, cache.capacity());
+        // the latest proofs are still known
+        var key = randomKey();
+        cache.markAsUsed(key, expiration.plusSeconds(1));
+        assertTrue(cache.isKnown(key));
+    }
+
+    @Test
+    void givenKeysSharingTheirFingerprint_whenMarkAsUsed_thenTreatedAsSameProof() {
+        var cache = inMemoryCache(1024);
+        var key = ByteBuffer.allocate(32).putLong(42L).array();
+        var otherKey = ByteBuffer.allocate(32).putLong(42L).putLong(7L).array();
+
+        assertTrue(cache.markAsUsed(key, Instant.now().plusSeconds(60)));
+        assertFalse(cache.markAsUsed(otherKey, Instant.now().plusSeconds(60)));
+    }
+
+    private static void assertRejectsReplays(ProofReplayCache cache) {
+        var key = randomKey();
+        var expiration = Instant.now().plusSeconds(60);
+
+        assertFalse(cache.isKnown(key));
+        assertTrue(cache.markAsUsed(key, expiration));
+        assertTrue(cache.isKnown(key));
+        assertFalse(cache.markAsUsed(key, expiration));
+        assertFalse(cache.isKnown(randomKey()));
+    }
+
+    private static InMemoryProofReplayCache inMemoryCache(int maxEntries) {
+        var properties = new ProofReplayCacheProperties();
+        properties.setMaxEntries(maxEntries);
+        return new InMemoryProofReplayCache(properties);
+    }
+
+    private static byte[] randomKey() {
+        var key = new byte[32];
+        RANDOM.nextBytes(key);
+        return key;
+    }
+}
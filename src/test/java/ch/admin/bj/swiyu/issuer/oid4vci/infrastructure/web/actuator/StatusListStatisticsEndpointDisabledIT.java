@@ -0,0 +1,32 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.actuator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "monitoring.status-lists-endpoint.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatusListStatisticsEndpointDisabledIT {
+
+    @Autowired
+    private MockMvc mock;
+
+    @Test
+    void givenBasicAuthDisabled_whenStatisticsRequested_thenNotExposed() throws Exception {
+        mock.perform(get("/actuator/statuslists"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.actuator;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusList;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListRepository;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListType;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.TokenStatusListToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "monitoring.status-lists-endpoint.enabled=true",
+        "monitoring.basic-auth.enabled=true",
+        "monitoring.basic-auth.username=monitoring",
+        "monitoring.basic-auth.password=secret"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatusListStatisticsEndpointIT {
+
+    private static final String BASIC_AUTH = "Basic " + Base64.getEncoder().encodeToString("monitoring:secret".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mock;
+    @Autowired
+    private StatusListRepository statusListRepository;
+
+    private UUID statusListId;
+
+    @BeforeEach
+    void setUp() {
+        var token = new TokenStatusListToken(2, 1000);
+        token.setStatus(new int[]{3, 17, 42, 99}, 1);
+        token.setStatus(new int[]{5, 6}, 2);
+        token.setStatus(7, 3);
+        statusListId = UUID.randomUUID();
+        statusListRepository.saveAndFlush(new StatusList(statusListId, StatusListType.TOKEN_STATUS_LIST, Map.of("bits", 2),
+                "https://localhost:8080/status/" + statusListId, token.getStatusListData(), 100, 4000, Collections.emptySet()));
+    }
+
+    @Test
+    void givenStatusList_whenStatisticsRequested_thenStatusCounts() throws Exception {
+        mock.perform(get("/actuator/statuslists/" + statusListId).header(HttpHeaders.AUTHORIZATION, BASIC_AUTH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bits").value(2))
+                .andExpect(jsonPath("$.revoked").value(4))
+                .andExpect(jsonPath("$.suspended").value(2))
+                .andExpect(jsonPath("$.revocationRatio").value(0.04))
+                .andExpect(jsonPath("$.histogram.0").value(4000 - 7))
+                .andExpect(jsonPath("$.histogram.3").value(1));
+
+        mock.perform(get("/actuator/statuslists").header(HttpHeaders.AUTHORIZATION, BASIC_AUTH))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void givenStatus_whenIndicesRequested_thenPagedIndices() throws Exception {
+        mock.perform(get("/actuator/statuslists/" + statusListId + "/1").header(HttpHeaders.AUTHORIZATION, BASIC_AUTH).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.indices", contains(3, 17, 42)))
+                .andExpect(jsonPath("$.nextFrom").value(43));
+
+        mock.perform(get("/actuator/statuslists/" + statusListId + "/1").header(HttpHeaders.AUTHORIZATION, BASIC_AUTH).param("from", "43"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.indices", contains(99)))
+                .andExpect(jsonPath("$.nextFrom").doesNotExist());
+    }
+
+    @Test
+    void givenUnknownStatusListOrStatus_whenRequested_thenNotFound() throws Exception {
+        mock.perform(get("/actuator/statuslists/" + UUID.randomUUID()).header(HttpHeaders.AUTHORIZATION, BASIC_AUTH))
+                .andExpect(status().isNotFound());
+        mock.perform(get("/actuator/statuslists/" + statusListId + "/4").header(HttpHeaders.AUTHORIZATION, BASIC_AUTH))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void givenNoCredentials_whenRequested_thenUnauthorized() throws Exception {
+        mock.perform(get("/actuator/statuslists/" + statusListId))
+                .andExpect(status().isUnauthorized());
+        mock.perform(get("/actuator/statuslists"))
+                .andExpect(status().isUnauthorized());
+    }
+}
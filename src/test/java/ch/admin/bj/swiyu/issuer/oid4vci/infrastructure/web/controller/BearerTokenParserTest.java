@@ -0,0 +1,63 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.infrastructure.web.controller;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.OAuthException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BearerTokenParserTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Bearer %s", "BEARER %s", "bearer  %s ", "bEaReR %s"})
+    void givenBearerHeader_whenParsed_thenUuidToken(String headerFormat) {
+        var uuid = UUID.randomUUID();
+
+        var token = BearerTokenParser.parse(String.format(headerFormat, uuid));
+
+        assertEquals(uuid.toString(), token.value());
+        assertEquals(uuid, token.uuid());
+        assertFalse(token.signed());
+    }
+
+    @Test
+    void givenSignedToken_whenParsed_thenSignedToken() {
+        var token = BearerTokenParser.parse("Bearer cGF5bG9hZA.bWFj");
+
+        assertEquals("cGF5bG9hZA.bWFj", token.value());
+        assertNull(token.uuid());
+        assertTrue(token.signed());
+    }
+
+    @Test
+    void givenGarbageToken_whenParsed_thenNeitherUuidNorSigned() {
+        var token = BearerTokenParser.parse("Bearer garbage");
+
+        assertNull(token.uuid());
+        assertFalse(token.signed());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "Bearer", "Bearer ", "Bearer   ", "Basic dXNlcjpwYXNz", "Bearerabc", "Token bearer abc"})
+    void givenNoBearerToken_whenParsed_thenInvalidRequest(String header) {
+        var ex = assertThrows(OAuthException.class, () -> BearerTokenParser.parse(header));
+        assertEquals("No bearer token found", ex.getMessage());
+    }
+
+    @ParameterizedTest
+    @NullSource
+    void givenNoHeader_whenParsed_thenInvalidRequest(String header) {
+        var ex = assertThrows(OAuthException.class, () -> BearerTokenParser.parse(header));
+        assertEquals("No authorization header found", ex.getMessage());
+    }
+}
@@ -10,13 +10,19 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +45,7 @@ public class CredentialMetadataControllerIT {
         // Expected value calculated by running a local instance and in terminal
         // echo "sha256-$(curl -X 'GET' 'http://localhost:8080/json-schema/my-schema-v01' 'accept: application/json' | openssl dgst -sha256 -binary | openssl base64 -A)"
         assertEquals("sha256-JXU3403niPeAUi8FN0IX6wfXafrgusykHC1LpKMOO94=", calculateSha256Hash(content));
+        assertTrue(mvcResult.getResponse().getHeader("X-Integrity").startsWith(calculateSha256Hash(content) + " sha384-"));
         var vctMetadata = mapper.readValue(content, HashMap.class);
         var jsonSchemaResult = mock.perform(MockMvcRequestBuilders.get(vctMetadata.get("schema_uri").toString()))
                 .andExpect(status().isOk())
@@ -60,6 +67,37 @@ public class CredentialMetadataControllerIT {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void givenGzipAccepted_whenGetMetadata_thenCompressedSameContent() throws Exception {
+        var plain = mock.perform(MockMvcRequestBuilders.get("/vct/my-vct-v01"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        var gzipped = mock.perform(MockMvcRequestBuilders.get("/vct/my-vct-v01").header("Accept-Encoding", "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(plain, gunzip(gzipped));
+    }
+
+    @Test
+    void givenGzipRejected_whenGetMetadata_thenUncompressed() throws Exception {
+        mock.perform(MockMvcRequestBuilders.get("/.well-known/openid-credential-issuer").header("Accept-Encoding", "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.credential_issuer").value("http://localhost:8080"));
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return input.readAllBytes();
+        }
+    }
+
     private static String calculateSha256Hash(String input) {
         try {
             // Get an instance of MessageDigest for SHA-256
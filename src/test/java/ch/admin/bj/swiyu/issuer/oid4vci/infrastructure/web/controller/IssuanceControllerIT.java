@@ -133,6 +133,23 @@ class IssuanceControllerIT {
                 .andReturn();
     }
 
+    @Test
+    void testCredentialFlowWithNonceFromNonceEndpoint_thenSuccess() throws Exception {
+        var tokenResponse = TestUtils.fetchOAuthToken(mock, validPreAuthCode.toString());
+        var token = tokenResponse.get("access_token");
+        var nonceResponse = mock.perform(post("/api/v1/nonce"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andReturn();
+        var nonce = JsonParser.parseString(nonceResponse.getResponse().getContentAsString()).getAsJsonObject().get("c_nonce").getAsString();
+
+        String proof = TestUtils.createHolderProof(jwk, applicationProperties.getTemplateReplacement().get("external-url"), nonce, ProofType.JWT.getClaimTyp(), true);
+        String credentialRequestString = String.format("{ \"format\": \"vc+sd-jwt\" , \"proof\": {\"proof_type\": \"jwt\", \"jwt\": \"%s\"}}", proof);
+
+        requestCredential(mock, (String) token, credentialRequestString)
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testWrongProofType_thenBadRequest() throws Exception {
         var tokenResponse = TestUtils.fetchOAuthToken(mock, validPreAuthCode.toString());
@@ -178,6 +195,17 @@ class IssuanceControllerIT {
         assertEquals("UNPROCESSABLE_ENTITY", credentialResponse.get("status").getAsString());
     }
 
+    @Test
+    void testProofWithoutProofType_thenBadRequest() throws Exception {
+        var tokenResponse = TestUtils.fetchOAuthToken(mock, validPreAuthCode.toString());
+        var token = tokenResponse.get("access_token");
+
+        String credentialRequestString = "{ \"format\": \"vc+sd-jwt\" , \"proof\": {\"cwt\": \"cwt\"}}";
+        JsonObject credentialResponse = TestUtils.requestFailingCredential(mock, token, credentialRequestString);
+
+        assertEquals("UNPROCESSABLE_ENTITY", credentialResponse.get("status").getAsString());
+    }
+
     @Test
     void testWithMissingProof_thenBadRequest() throws Exception {
         var tokenResponse = TestUtils.fetchOAuthToken(mock, validPreAuthCode.toString());
@@ -189,6 +217,18 @@ class IssuanceControllerIT {
                 .andExpect(jsonPath("$.error").value("INVALID_PROOF"));
     }
 
+    @Test
+    void testOversizedCredentialRequest_thenPayloadTooLarge() throws Exception {
+        var tokenResponse = TestUtils.fetchOAuthToken(mock, validPreAuthCode.toString());
+        var token = tokenResponse.get("access_token");
+
+        String credentialRequestString = String.format("{ \"format\": \"vc+sd-jwt\" , \"padding\": \"%s\"}",
+                "a".repeat(applicationProperties.getMaxRequestBodySize()));
+        requestCredential(mock, (String) token, credentialRequestString)
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.status").value("PAYLOAD_TOO_LARGE"));
+    }
+
     @Test
     void testUnboundCredentialFlow_thenSuccess() throws Exception {
         var vc = getUnboundVc();
@@ -0,0 +1,121 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.AccessTokenProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.OAuthException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialStatus;
+import org.junit.jupiter.api.Test;
+
+class AccessTokenServiceTest {
+
+    private static final String OLD_KEY = Base64.getEncoder().encodeToString("old-key-old-key-old-key-old-key!".getBytes());
+    private static final String NEW_KEY = Base64.getEncoder().encodeToString("new-key-new-key-new-key-new-key!".getBytes());
+
+    @Test
+    void givenUnsignedFormat_whenTokenIsCreated_thenPlainUuid() {
+        var offer = offer(Instant.now().plusSeconds(60));
+        var service = accessTokenService(false, List.of());
+
+        var token = service.createAccessToken(offer);
+
+        assertEquals(offer.getAccessToken().toString(), token);
+        assertFalse(AccessToken.of(token).signed());
+    }
+
+    @Test
+    void givenSignedToken_whenVerified_thenOfferIdAndAccessTokenReturned() {
+        var offer = offer(Instant.now().plusSeconds(60));
+        var service = accessTokenService(true, List.of(NEW_KEY));
+
+        var token = service.createAccessToken(offer);
+
+        assertTrue(AccessToken.of(token).signed());
+        var verified = service.verifySignedAccessToken(token);
+        assertEquals(offer.getId(), verified.offerId());
+        assertEquals(offer.getAccessToken(), verified.accessToken());
+    }
+
+    @Test
+    void givenRotatedKeys_whenTokenOfPreviousKeyIsVerified_thenAccepted() {
+        var offer = offer(Instant.now().plusSeconds(60));
+        var token = accessTokenService(true, List.of(OLD_KEY)).createAccessToken(offer);
+
+        assertEquals(offer.getId(), accessTokenService(true, List.of(NEW_KEY, OLD_KEY)).verifySignedAccessToken(token).offerId());
+        assertThrows(OAuthException.class, () -> accessTokenService(true, List.of(NEW_KEY)).verifySignedAccessToken(token));
+    }
+
+    @Test
+    void givenTamperedToken_whenVerified_thenInvalid() {
+        var service = accessTokenService(true, List.of(NEW_KEY));
+        var token = service.createAccessToken(offer(Instant.now().plusSeconds(60)));
+        var tampered = (token.charAt(0) == 'A' ? 'B' : 'A') + token.substring(1);
+
+        var ex = assertThrows(OAuthException.class, () -> service.verifySignedAccessToken(tampered));
+        assertEquals("Invalid accessToken", ex.getMessage());
+        assertThrows(OAuthException.class, () -> service.verifySignedAccessToken(token.substring(1)));
+        assertThrows(OAuthException.class, () -> service.verifySignedAccessToken("not.base64!"));
+    }
+
+    @Test
+    void givenExpiredToken_whenVerified_thenExpired() {
+        var service = accessTokenService(true, List.of(NEW_KEY));
+        var token = service.createAccessToken(offer(Instant.now().minusSeconds(1)));
+
+        var ex = assertThrows(OAuthException.class, () -> service.verifySignedAccessToken(token));
+        assertEquals("AccessToken expired.", ex.getMessage());
+    }
+
+    @Test
+    void givenSignedTokensWithoutKeys_whenCreated_thenConfigurationException() {
+        var ex = assertThrows(ConfigurationException.class, () -> accessTokenService(true, List.of()));
+        assertTrue(ex.getMessage().contains("ACCESS_TOKEN_HMAC_KEYS"));
+    }
+
+    @Test
+    void givenSigningDisabledWithoutKeys_whenSignedTokenVerified_thenInvalid() {
+        var token = accessTokenService(true, List.of(NEW_KEY)).createAccessToken(offer(Instant.now().plusSeconds(60)));
+
+        assertThrows(OAuthException.class, () -> accessTokenService(false, List.of()).verifySignedAccessToken(token));
+    }
+
+    private AccessTokenService accessTokenService(boolean signed, List<String> hmacKeys) {
+        var properties = new AccessTokenProperties();
+        properties.setSigned(signed);
+        properties.setHmacKeys(hmacKeys);
+        return new AccessTokenService(properties);
+    }
+
+    private static CredentialOffer offer(Instant tokenExpiration) {
+        return new CredentialOffer(
+                UUID.randomUUID(),
+                CredentialStatus.IN_PROGRESS,
+                Collections.emptyList(),
+                new HashMap<>(),
+                new HashMap<>(),
+                UUID.randomUUID(),
+                tokenExpiration.getEpochSecond(),
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                Instant.now().plusSeconds(600).getEpochSecond(),
+                Instant.now(),
+                Instant.now(),
+                null
+        );
+    }
+}
@@ -16,13 +16,11 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
 import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
-import ch.admin.bj.swiyu.issuer.oid4vci.common.config.OpenIdIssuerConfiguration;
 import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.OAuthException;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOfferRepository;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialStatus;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialRequest;
-import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.metadata.IssuerMetadataTechnical;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -34,18 +32,18 @@ public class CredentialServiceTest {
     @Mock
     private CredentialOfferRepository credentialOfferRepository;
     @Mock
-    private IssuerMetadataTechnical issuerMetadata;
+    private MetadataRegistry metadataRegistry;
     @Mock
     private CredentialFormatFactory vcFormatFactory;
     @Mock
     private ApplicationProperties applicationProperties;
     @Mock
-    private OpenIdIssuerConfiguration openIdIssuerConfiguration;
+    private AccessTokenService accessTokenService;
 
     @Test
     public void givenExpiredToken_whenGetCredential_thenThrowOAuthException() throws OAuthException {
         // Given
-        var service = new CredentialService(credentialOfferRepository, issuerMetadata, vcFormatFactory, applicationProperties, null, openIdIssuerConfiguration);
+        var service = new CredentialService(credentialOfferRepository, metadataRegistry, vcFormatFactory, applicationProperties, null, null, null, null, accessTokenService);
         var uuid = UUID.randomUUID();
         var offerData = new HashMap<String, Object>() {{
             put("data", "data");
@@ -72,7 +70,7 @@ public class CredentialServiceTest {
         when(credentialOfferRepository.findByAccessToken(uuid)).thenReturn(Optional.of(offer));
 
         // WHEN credential is created for offer with expired timestamp
-        var ex = assertThrows(OAuthException.class, () -> service.createCredential(CredentialRequest.builder().build(), uuid.toString()));
+        var ex = assertThrows(OAuthException.class, () -> service.createCredential(CredentialRequest.builder().build(), AccessToken.of(uuid.toString())));
 
         // THEN Status is changed and offer data is cleared
         assertEquals("INVALID_REQUEST", ex.getError().toString());
@@ -82,7 +80,7 @@ public class CredentialServiceTest {
     @Test
     public void givenExpiredOffer_whenCredentialIsCreated_throws() {
         // GIVEN
-        var service = new CredentialService(credentialOfferRepository, issuerMetadata, vcFormatFactory, applicationProperties, null, openIdIssuerConfiguration);
+        var service = new CredentialService(credentialOfferRepository, metadataRegistry, vcFormatFactory, applicationProperties, null, null, null, null, accessTokenService);
         var uuid = UUID.randomUUID();
         var preAuthorizedCode = UUID.randomUUID();
         var offerData = new HashMap<String, Object>() {{
@@ -107,7 +105,7 @@ public class CredentialServiceTest {
         when(credentialOfferRepository.findByAccessToken(uuid)).thenReturn(Optional.of(offer));
 
         // WHEN credential is created for offer with expired timestamp
-        var ex = assertThrows(OAuthException.class, () -> service.createCredential(CredentialRequest.builder().build(), uuid.toString()));
+        var ex = assertThrows(OAuthException.class, () -> service.createCredential(CredentialRequest.builder().build(), AccessToken.of(uuid.toString())));
 
         // THEN Status is changed and offer data is cleared
         assertEquals(CredentialStatus.EXPIRED, offer.getCredentialStatus());
@@ -119,7 +117,7 @@ public class CredentialServiceTest {
     @Test
     public void givenExpiredOffer_whenTokenIsCreated_throws() {
         // GIVEN
-        var service = new CredentialService(credentialOfferRepository, issuerMetadata, vcFormatFactory, applicationProperties, null, openIdIssuerConfiguration);
+        var service = new CredentialService(credentialOfferRepository, metadataRegistry, vcFormatFactory, applicationProperties, null, null, null, null, accessTokenService);
         var uuid = UUID.randomUUID();
         var offerData = new HashMap<String, Object>() {{
             put("data", "data");
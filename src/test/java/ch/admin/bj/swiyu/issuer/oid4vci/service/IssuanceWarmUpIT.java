@@ -0,0 +1,75 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.WarmUpProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOfferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IssuanceWarmUpIT {
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private MetadataRegistry metadataRegistry;
+    @Autowired
+    private DataIntegrityService dataIntegrityService;
+    @Autowired
+    private SdJwtDisclosureFactory disclosureFactory;
+    @Autowired
+    private SecureRandomProvider secureRandomProvider;
+    @Autowired
+    private CredentialOfferRepository credentialOfferRepository;
+
+    @Test
+    void givenWarmUp_whenRun_thenAllIterationsIssuedWithoutDatabase() {
+        long offers = credentialOfferRepository.count();
+        var warmUp = warmUp(50, Duration.ofSeconds(60));
+
+        warmUp.run(new DefaultApplicationArguments());
+
+        assertEquals(50, warmUp.getCompletedIterations());
+        assertEquals(offers, credentialOfferRepository.count());
+    }
+
+    @Test
+    void givenTimeoutPassed_whenRun_thenRemainingIterationsSkipped() {
+        var timeout = Duration.ofSeconds(1);
+        var warmUp = warmUp(1_000_000, timeout);
+
+        long start = System.nanoTime();
+        warmUp.run(new DefaultApplicationArguments());
+        var duration = Duration.ofNanos(System.nanoTime() - start);
+
+        // At least one issuance, so a warm-up failing right away does not pass as timed out
+        assertTrue(warmUp.getCompletedIterations() > 0);
+        assertTrue(warmUp.getCompletedIterations() < 1_000_000);
+        // The iteration running at the deadline is completed, the margin allows for a slow build machine
+        assertTrue(duration.compareTo(timeout.plusSeconds(5)) < 0, "Warm-up took " + duration);
+    }
+
+    private IssuanceWarmUp warmUp(int iterations, Duration timeout) {
+        var properties = new WarmUpProperties();
+        properties.setEnabled(true);
+        properties.setIterations(iterations);
+        properties.setTimeout(timeout);
+        return new IssuanceWarmUp(applicationProperties, metadataRegistry, dataIntegrityService, disclosureFactory,
+                properties, secureRandomProvider);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.WarmUpProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Warm-up of a credential configuration whose type metadata has a json schema with typed and required claims
+ */
+@SpringBootTest(properties = "application.vct-metadata-files.warm-up-vct-v01=classpath:warm_up_vct_metadata.json")
+@ActiveProfiles("test")
+class IssuanceWarmUpTypedSchemaIT {
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+    @Autowired
+    private MetadataRegistry metadataRegistry;
+    @Autowired
+    private DataIntegrityService dataIntegrityService;
+    @Autowired
+    private SdJwtDisclosureFactory disclosureFactory;
+    @Autowired
+    private SecureRandomProvider secureRandomProvider;
+
+    @Test
+    void givenTypedJsonSchema_whenRun_thenAllIterationsIssued() {
+        assertNotNull(metadataRegistry.getSnapshot().getSdJwtIssuancePlans().get("university_example_sd_jwt")
+                .getOfferDataValidator().getSchemaDocument());
+        var properties = new WarmUpProperties();
+        properties.setEnabled(true);
+        properties.setIterations(50);
+        properties.setTimeout(Duration.ofSeconds(60));
+        var warmUp = new IssuanceWarmUp(applicationProperties, metadataRegistry, dataIntegrityService, disclosureFactory,
+                properties, secureRandomProvider);
+
+        warmUp.run(new DefaultApplicationArguments());
+
+        assertEquals(50, warmUp.getCompletedIterations());
+    }
+}
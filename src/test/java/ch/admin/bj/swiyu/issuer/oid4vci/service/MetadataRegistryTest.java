@@ -0,0 +1,205 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.MetadataReloadProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.SdjwtProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataRegistryTest {
+
+    @TempDir
+    private Path directory;
+    private ApplicationProperties applicationProperties;
+    private SdjwtProperties sdjwtProperties;
+    private MetadataRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.setTemplateReplacement(Map.of("external-url", "http://localhost:8080", "stage", "local-"));
+        applicationProperties.setOpenidFile(copy("example_openid.json"));
+        applicationProperties.setMetadataFile(copy("example_issuer_metadata.json"));
+        applicationProperties.setVctMetadataFiles(Map.of("my-vct-v01", copy("example_vct_metadata.json")));
+        applicationProperties.setJsonSchemaMetadataFiles(Map.of("my-schema-v01", copy("example_json_schema.json")));
+        applicationProperties.setOverlaysCaptureArchitectureMetadataFiles(Map.of("my-oca-v01", copy("example_oca.json")));
+        sdjwtProperties = new SdjwtProperties();
+        sdjwtProperties.setVerificationMethod("did:example:localhost%3A8080:abcabc#sdjwt");
+        registry = createRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void givenMetadataFiles_whenCreated_thenDocumentsPrecomputed() throws IOException {
+        var snapshot = registry.getSnapshot();
+
+        assertEquals(1, snapshot.getVersion());
+        assertEquals("http://localhost:8080", snapshot.getIssuerMetadataTechnical().getCredentialIssuer());
+        assertFalse(snapshot.getSdJwtIssuancePlans().isEmpty());
+        var issuerMetadata = new String(snapshot.getIssuerMetadata().json(), StandardCharsets.UTF_8);
+        assertTrue(issuerMetadata.contains("local-Example Credential"));
+        assertFalse(issuerMetadata.contains("${"));
+        assertTrue(new String(snapshot.getOpenIdConfiguration().json(), StandardCharsets.UTF_8).contains("token_endpoint"));
+        var vct = snapshot.getVctMetadata().get("my-vct-v01");
+        assertArrayEquals(vct.json(), gunzip(vct.gzipped()));
+        assertTrue(snapshot.getJsonSchemas().containsKey("my-schema-v01"));
+        assertTrue(snapshot.getOverlaysCaptureArchitecture().containsKey("my-oca-v01"));
+    }
+
+    @Test
+    void givenUnchangedFiles_whenReloadIfChanged_thenSnapshotKept() {
+        var snapshot = registry.getSnapshot();
+
+        registry.reloadIfChanged();
+
+        assertSame(snapshot, registry.getSnapshot());
+    }
+
+    @Test
+    void givenChangedFile_whenReloadIfChanged_thenSnapshotReplaced() throws IOException {
+        var schema = Path.of(applicationProperties.getJsonSchemaMetadataFiles().get("my-schema-v01").substring("file:".length()));
+        modify(schema, "{\"title\": \"changed\"}");
+
+        registry.reloadIfChanged();
+
+        var snapshot = registry.getSnapshot();
+        assertEquals(2, snapshot.getVersion());
+        assertEquals("{\"title\": \"changed\"}", new String(snapshot.getJsonSchemas().get("my-schema-v01").json(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void givenInvalidChange_whenReload_thenPreviousSnapshotKept() throws IOException {
+        var snapshot = registry.getSnapshot();
+        var metadata = Path.of(applicationProperties.getMetadataFile().substring("file:".length()));
+        modify(metadata, "{\"credential_issuer\": null}");
+
+        assertFalse(registry.reload());
+
+        assertSame(snapshot, registry.getSnapshot());
+    }
+
+    @Test
+    void givenFailedReload_whenReloadIfChangedWithoutFurtherChange_thenNotRetried() throws IOException {
+        var metadata = Path.of(applicationProperties.getMetadataFile().substring("file:".length()));
+        var validMetadata = Files.readString(metadata);
+        modify(metadata, "{\"credential_issuer\": null}");
+        registry.reloadIfChanged();
+        var failedModification = Files.getLastModifiedTime(metadata);
+
+        // Same modification time as the failed attempt, so a retry would be the only way to pick up the content
+        Files.writeString(metadata, validMetadata);
+        Files.setLastModifiedTime(metadata, failedModification);
+        registry.reloadIfChanged();
+        assertEquals(1, registry.getSnapshot().getVersion());
+
+        modify(metadata, validMetadata);
+        registry.reloadIfChanged();
+        assertEquals(2, registry.getSnapshot().getVersion());
+    }
+
+    @Test
+    void givenChangedLocation_whenReloadIfChanged_thenSnapshotReplaced() throws IOException {
+        applicationProperties.setVctMetadataFiles(Map.of("my-vct-v02", copy("example_vct_metadata.json", "vct_v02.json")));
+
+        registry.reloadIfChanged();
+
+        var snapshot = registry.getSnapshot();
+        assertEquals(2, snapshot.getVersion());
+        assertFalse(snapshot.getVctMetadata().containsKey("my-vct-v01"));
+        assertTrue(snapshot.getVctMetadata().containsKey("my-vct-v02"));
+    }
+
+    @Test
+    void givenMetadataFiles_whenCreated_thenIntegrityPrecomputed() throws Exception {
+        var vct = registry.getSnapshot().getVctMetadata().get("my-vct-v01");
+        var sha256 = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(vct.json()));
+        var sha384 = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-384").digest(vct.json()));
+
+        assertEquals("sha256-" + sha256, vct.sha256());
+        assertEquals("sha256-" + sha256 + " sha384-" + sha384, vct.integrity());
+    }
+
+    @Test
+    void givenServedTypeMetadataOfVct_whenLoaded_thenVctIntegrityInIssuancePlan() throws IOException {
+        var vctFile = directory.resolve("unbound_vct.json");
+        Files.writeString(vctFile, "{\"vct\": \"unbound_example_sd_jwt\", \"name\": \"Unbound\"}");
+        applicationProperties.setVctMetadataFiles(Map.of("unbound-v01", "file:" + vctFile));
+
+        registry.reload();
+
+        var snapshot = registry.getSnapshot();
+        assertEquals(snapshot.getVctMetadata().get("unbound-v01").sha256(),
+                snapshot.getSdJwtIssuancePlans().get("unbound_example_sd_jwt").getVctIntegrity());
+        assertNull(snapshot.getSdJwtIssuancePlans().get("university_example_sd_jwt").getVctIntegrity());
+    }
+
+    @Test
+    void givenInvalidMetadata_whenCreated_thenConfigurationException() throws IOException {
+        registry.shutdown();
+        modify(Path.of(applicationProperties.getOpenidFile().substring("file:".length())), "not json");
+
+        assertThrows(ConfigurationException.class, this::createRegistry);
+    }
+
+    private MetadataRegistry createRegistry() {
+        var reloadProperties = new MetadataReloadProperties();
+        reloadProperties.setInterval(Duration.ZERO);
+        return new MetadataRegistry(applicationProperties, sdjwtProperties, new DefaultResourceLoader(), new ObjectMapper(), reloadProperties);
+    }
+
+    private String copy(String resource) throws IOException {
+        return copy(resource, resource);
+    }
+
+    private String copy(String resource, String fileName) throws IOException {
+        var file = directory.resolve(fileName);
+        try (var input = new ClassPathResource(resource).getInputStream()) {
+            Files.copy(input, file);
+        }
+        return "file:" + file;
+    }
+
+    /**
+     * Writes the file with a later modification time, as the file system may not resolve the time of both writes
+     */
+    private static void modify(Path file, String content) throws IOException {
+        var lastModified = Files.getLastModifiedTime(file).toMillis();
+        Files.writeString(file, content);
+        assertTrue(file.toFile().setLastModified(lastModified + 10_000));
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return input.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.IssuanceProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.NonceProperties;
+import org.junit.jupiter.api.Test;
+
+class NonceServiceTest {
+
+    private static final String OLD_KEY = Base64.getEncoder().encodeToString("old-key-old-key-old-key-old-key!".getBytes());
+    private static final String NEW_KEY = Base64.getEncoder().encodeToString("new-key-new-key-new-key-new-key!".getBytes());
+
+    private final SecureRandomProvider secureRandomProvider = new SecureRandomProvider(new IssuanceProperties());
+
+    @Test
+    void givenIssuedNonce_whenValidated_thenValid() {
+        var service = nonceService(List.of(NEW_KEY));
+
+        var nonce = service.createNonce();
+
+        assertTrue(service.isValidNonce(nonce));
+        assertNotEquals(nonce, service.createNonce());
+    }
+
+    @Test
+    void givenRotatedKeys_whenNonceOfPreviousKeyIsValidated_thenValid() {
+        var nonce = nonceService(List.of(OLD_KEY)).createNonce();
+
+        assertTrue(nonceService(List.of(NEW_KEY, OLD_KEY)).isValidNonce(nonce));
+        assertFalse(nonceService(List.of(NEW_KEY)).isValidNonce(nonce));
+    }
+
+    @Test
+    void givenTamperedNonce_whenValidated_thenInvalid() {
+        var service = nonceService(List.of(NEW_KEY));
+        var decoded = Base64.getUrlDecoder().decode(service.createNonce());
+        // Move the issuing time into the future to extend the lifetime
+        ByteBuffer.wrap(decoded).putLong(Instant.now().plusSeconds(3600).getEpochSecond());
+
+        assertFalse(service.isValidNonce(Base64.getUrlEncoder().withoutPadding().encodeToString(decoded)));
+    }
+
+    @Test
+    void givenExpiredNonce_whenValidated_thenInvalid() throws Exception {
+        var service = nonceService(List.of(NEW_KEY));
+        var nonce = ByteBuffer.allocate(56)
+                .putLong(Instant.now().minusSeconds(301).getEpochSecond())
+                .put(new byte[16]);
+        var mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(Base64.getDecoder().decode(NEW_KEY), "HmacSHA256"));
+        mac.update(nonce.array(), 0, 24);
+        nonce.put(mac.doFinal());
+
+        assertFalse(service.isValidNonce(Base64.getUrlEncoder().withoutPadding().encodeToString(nonce.array())));
+    }
+
+    @Test
+    void givenMalformedNonce_whenValidated_thenInvalid() {
+        var service = nonceService(List.of(NEW_KEY));
+
+        assertFalse(service.isValidNonce(null));
+        assertFalse(service.isValidNonce("not a nonce"));
+        assertFalse(service.isValidNonce("3fa85f64-5717-4562-b3fc-2c963f66afa6"));
+        assertFalse(service.isValidNonce("!".repeat(75)));
+    }
+
+    private NonceService nonceService(List<String> keys) {
+        var properties = new NonceProperties();
+        properties.setHmacKeys(keys);
+        return new NonceService(properties, secureRandomProvider);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.ConfigurationException;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OfferDataValidatorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Map<String, Object> CLAIMS = Map.of(
+            "given_name", Map.of("mandatory", true, "value_type", "string"),
+            "email", Map.of("mandatory", false, "value_type", "string"),
+            "address", Map.of(
+                    "locality", Map.of("mandatory", true),
+                    "region", Map.of("display", "Region")));
+
+    @Test
+    void givenValidClaims_whenValidate_thenNoException() throws IOException {
+        var validator = OfferDataValidator.compile("test", CLAIMS, exampleSchema());
+
+        assertTrue(validator.isEnabled());
+        assertDoesNotThrow(() -> validator.validate(credentialClaims()));
+    }
+
+    @Test
+    void givenNothingToValidate_whenCompile_thenDisabled() {
+        var validator = OfferDataValidator.compile("test", Map.of("email", Map.of("mandatory", false)), null);
+
+        assertFalse(validator.isEnabled());
+    }
+
+    @Test
+    void givenMissingMandatoryClaim_whenValidate_thenCredentialException() {
+        var validator = OfferDataValidator.compile("test", CLAIMS, null);
+        var claims = credentialClaims();
+        claims.remove("given_name");
+
+        var exception = assertThrows(CredentialException.class, () -> validator.validate(claims));
+        assertEquals("Offer data does not match credential configuration test: missing mandatory claim given_name", exception.getMessage());
+    }
+
+    @Test
+    void givenMissingNestedMandatoryClaim_whenValidate_thenCredentialException() {
+        var validator = OfferDataValidator.compile("test", CLAIMS, null);
+        var claims = credentialClaims();
+        claims.put("address", Map.of("region", "Bern"));
+
+        var exception = assertThrows(CredentialException.class, () -> validator.validate(claims));
+        assertTrue(exception.getMessage().endsWith("missing mandatory claim address.locality"));
+    }
+
+    @Test
+    void givenNestedClaimsNotAnObject_whenValidate_thenNestedClaimsNotChecked() {
+        var validator = OfferDataValidator.compile("test", CLAIMS, null);
+        var claims = credentialClaims();
+        claims.put("address", "Bundesplatz 3, Bern");
+
+        assertDoesNotThrow(() -> validator.validate(claims));
+    }
+
+    @Test
+    void givenClaimViolatingSchema_whenValidate_thenCredentialException() throws IOException {
+        var validator = OfferDataValidator.compile("test", null, exampleSchema());
+        var claims = credentialClaims();
+        claims.put("is_over_18", "yes");
+        claims.remove("cnf");
+
+        var exception = assertThrows(CredentialException.class, () -> validator.validate(claims));
+        assertTrue(exception.getMessage().contains("is_over_18"));
+        assertTrue(exception.getMessage().contains("cnf"));
+    }
+
+    @Test
+    void givenInvalidSchema_whenCompile_thenConfigurationException() throws IOException {
+        var schema = OBJECT_MAPPER.readTree("{\"$schema\": \"https://json-schema.org/draft/2020-12/schema\", \"type\": 42}");
+
+        assertThrows(ConfigurationException.class, () -> OfferDataValidator.compile("test", null, schema));
+    }
+
+    /**
+     * Validation runs for every credential, so it has to stay cheap compared to signing. Run with: mvn test -Pbenchmark
+     */
+    @Test
+    @Tag("benchmark")
+    void givenCompiledValidator_whenValidateRepeatedly_thenReportsDurationPerCredential() throws IOException {
+        var validator = OfferDataValidator.compile("test", CLAIMS, exampleSchema());
+        var claims = credentialClaims();
+        int iterations = 20_000;
+
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                validator.validate(claims);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / iterations);
+        }
+
+        System.out.printf("Offer data validation: %d ns per credential (%s %s)%n", best,
+                System.getProperty("java.vm.name"), System.getProperty("java.runtime.version"));
+    }
+
+    private static JsonNode exampleSchema() throws IOException {
+        try (var input = new ClassPathResource("example_json_schema.json").getInputStream()) {
+            return OBJECT_MAPPER.readTree(input);
+        }
+    }
+
+    private static Map<String, Object> credentialClaims() {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("iss", "did:example:issuer");
+        claims.put("vct", "https://example.com/vct/my-vct-v01");
+        claims.put("iat", 1_700_000_000L);
+        claims.put("cnf", Map.of("jwk", Map.of("kty", "EC", "crv", "P-256", "x", "x", "y", "y")));
+        claims.put("status", Map.of("status_list", Map.of("idx", 0, "uri", "https://example.com/statuslists/1")));
+        claims.put("given_name", "Erika");
+        claims.put("family_name", "Mustermann");
+        claims.put("email", "erika@example.com");
+        claims.put("birthdate", "1970-01-01");
+        claims.put("is_over_18", true);
+        claims.put("address", Map.of("street_address", "Bundesplatz 3", "locality", "Bern", "country", "CH"));
+        return claims;
+    }
+}
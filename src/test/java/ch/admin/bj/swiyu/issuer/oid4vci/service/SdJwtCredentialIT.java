@@ -7,6 +7,7 @@
 package ch.admin.bj.swiyu.issuer.oid4vci.service;
 
 import ch.admin.bj.swiyu.issuer.oid4vci.common.config.ApplicationProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialException;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialOffer;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.CredentialStatus;
 import ch.admin.bj.swiyu.issuer.oid4vci.domain.openid.credentialrequest.CredentialRequest;
@@ -137,4 +138,18 @@ class SdJwtCredentialIT {
         assertEquals(3
                 , sd.size());
     }
+
+    @Test
+    void givenOfferMissingMandatoryClaim_whenBuild_thenCredentialException() {
+        // The unbound configuration requires the claim animal, which is not part of the university data
+        var credentialOffer = createTestOffer(preAuthCode, CredentialStatus.OFFERED, "unbound_example_sd_jwt");
+
+        var builder = vcFormatFactory
+                .getFormatBuilder(credentialOffer.getMetadataCredentialSupportedId().getFirst())
+                .credentialOffer(credentialOffer)
+                .credentialType(credentialOffer.getMetadataCredentialSupportedId());
+
+        var exception = assertThrows(CredentialException.class, builder::build);
+        assertTrue(exception.getMessage().contains("missing mandatory claim animal"));
+    }
 }
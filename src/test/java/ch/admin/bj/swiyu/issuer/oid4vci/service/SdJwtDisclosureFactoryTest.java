@@ -0,0 +1,78 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.IssuanceProperties;
+import com.authlete.sd.Disclosure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SdJwtDisclosureFactoryTest {
+
+    private SdJwtDisclosureFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.shutdown();
+    }
+
+    @Test
+    void givenClaimsAboveThreshold_whenCreateDisclosures_thenOrderOfClaimsIsRetained() {
+        // GIVEN
+        var properties = properties(10, 4);
+        factory = new SdJwtDisclosureFactory(properties, new SecureRandomProvider(properties));
+        var claims = claims(500);
+
+        // WHEN
+        var disclosures = factory.createDisclosures(claims);
+
+        // THEN
+        assertClaimsMatch(claims, disclosures);
+    }
+
+    @Test
+    void givenParallelModeDisabled_whenCreateDisclosures_thenAllClaimsAreDisclosed() {
+        // GIVEN
+        var properties = properties(0, 4);
+        factory = new SdJwtDisclosureFactory(properties, new SecureRandomProvider(properties));
+        var claims = claims(500);
+
+        // WHEN
+        var disclosures = factory.createDisclosures(claims);
+
+        // THEN
+        assertClaimsMatch(claims, disclosures);
+    }
+
+    private static void assertClaimsMatch(List<Map.Entry<String, Object>> claims, List<Disclosure> disclosures) {
+        assertEquals(claims.size(), disclosures.size());
+        for (int i = 0; i < claims.size(); i++) {
+            assertEquals(claims.get(i).getKey(), disclosures.get(i).getClaimName());
+            assertEquals(claims.get(i).getValue(), disclosures.get(i).getClaimValue());
+        }
+    }
+
+    private static List<Map.Entry<String, Object>> claims(int count) {
+        return IntStream.range(0, count)
+                .<Map.Entry<String, Object>>mapToObj(i -> new AbstractMap.SimpleImmutableEntry<>("claim" + i, Map.of("value", i)))
+                .toList();
+    }
+
+    private static IssuanceProperties properties(int threshold, int parallelism) {
+        var properties = new IssuanceProperties();
+        properties.setParallelDisclosureThreshold(threshold);
+        properties.setParallelDisclosureParallelism(parallelism);
+        return properties;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.IssuanceProperties;
+import org.junit.jupiter.api.Test;
+
+class SecureRandomProviderTest {
+
+    @Test
+    void givenSaltPool_whenSaltsAreDrainedConcurrently_thenEverySaltIsUnique() {
+        // GIVEN
+        var provider = new SecureRandomProvider(properties(64));
+        Set<String> salts = ConcurrentHashMap.newKeySet();
+
+        // WHEN
+        IntStream.range(0, 10_000).parallel().forEach(i -> salts.add(provider.nextSalt()));
+        provider.shutdown();
+
+        // THEN
+        assertEquals(10_000, salts.size());
+        salts.forEach(salt -> assertEquals(16, Base64.getUrlDecoder().decode(salt).length));
+    }
+
+    @Test
+    void givenNoSaltPool_whenNextSalt_thenSaltIsGenerated() {
+        var provider = new SecureRandomProvider(properties(0));
+
+        assertNotEquals(provider.nextSalt(), provider.nextSalt());
+    }
+
+    @Test
+    void whenRandomUUID_thenVersion4Uuid() {
+        var provider = new SecureRandomProvider(properties(0));
+
+        var uuid = provider.randomUUID();
+
+        assertEquals(4, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertNotEquals(uuid, provider.randomUUID());
+    }
+
+    @Test
+    void givenFullRing_whenOffer_thenRejected() {
+        var ring = new SecureRandomProvider.SaltRing(4);
+
+        assertTrue(ring.offer("a"));
+        assertTrue(ring.offer("b"));
+        assertTrue(ring.offer("c"));
+        assertTrue(ring.offer("d"));
+        assertFalse(ring.offer("e"));
+        assertEquals("a", ring.poll());
+        assertTrue(ring.offer("e"));
+        assertEquals("b", ring.poll());
+    }
+
+    private static IssuanceProperties properties(int saltPoolSize) {
+        var properties = new IssuanceProperties();
+        properties.setSaltPoolSize(saltPoolSize);
+        return properties;
+    }
+}
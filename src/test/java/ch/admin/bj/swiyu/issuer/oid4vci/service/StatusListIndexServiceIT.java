@@ -0,0 +1,134 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+package ch.admin.bj.swiyu.issuer.oid4vci.service;
+
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.IssuanceProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.config.StatusListIndexProperties;
+import ch.admin.bj.swiyu.issuer.oid4vci.common.exception.CredentialException;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusList;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListRepository;
+import ch.admin.bj.swiyu.issuer.oid4vci.domain.credentialoffer.StatusListType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StatusListIndexServiceIT {
+
+    @Autowired
+    private StatusListRepository statusListRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final SecureRandomProvider secureRandomProvider = new SecureRandomProvider(new IssuanceProperties());
+
+    @Test
+    void givenDefaultConfiguration_whenContextStarted_thenServiceNotCreated() {
+        assertTrue(applicationContext.getBeansOfType(StatusListIndexService.class).isEmpty());
+    }
+
+    @Test
+    void givenConcurrentIssuance_whenIndicesAllocated_thenUniqueAndReservedInBlocks() throws InterruptedException {
+        var statusListId = createStatusList(10000);
+        var service = statusListIndexService(100, false);
+        var indices = ConcurrentHashMap.<Integer>newKeySet();
+
+        var executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> indices.add(service.allocateIndex(statusListId)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1000, indices.size());
+        assertTrue(indices.stream().allMatch(index -> index >= 0 && index < 1000));
+        assertEquals(1000, nextFreeIndex(statusListId));
+
+        // The next block is reserved, its unused rest returned on shutdown
+        assertEquals(1000, service.allocateIndex(statusListId));
+        assertEquals(1100, nextFreeIndex(statusListId));
+        service.releaseReservedIndices();
+        assertEquals(1001, nextFreeIndex(statusListId));
+    }
+
+    @Test
+    void givenLessThanBlockLeft_whenIndicesAllocated_thenRestReservedUntilExhausted() {
+        var statusListId = createStatusList(150);
+        var service = statusListIndexService(100, false);
+
+        var indices = IntStream.range(0, 150).map(i -> service.allocateIndex(statusListId)).boxed().toList();
+
+        assertEquals(150, new HashSet<>(indices).size());
+        assertEquals(150, nextFreeIndex(statusListId));
+        var ex = assertThrows(CredentialException.class, () -> service.allocateIndex(statusListId));
+        assertTrue(ex.getMessage().contains("no free indices"));
+    }
+
+    @Test
+    void givenShuffledMode_whenBlockAllocated_thenAllIndicesOfBlockInRandomOrder() {
+        var statusListId = createStatusList(1000);
+        var service = statusListIndexService(100, true);
+
+        var indices = IntStream.range(0, 100).map(i -> service.allocateIndex(statusListId)).boxed().toList();
+
+        assertEquals(IntStream.range(0, 100).boxed().toList(), indices.stream().sorted().toList());
+        assertNotEquals(IntStream.range(0, 100).boxed().toList(), indices);
+
+        // Unused indices of a shuffled block are scattered and stay reserved
+        service.allocateIndex(statusListId);
+        service.releaseReservedIndices();
+        assertEquals(200, nextFreeIndex(statusListId));
+    }
+
+    @Test
+    void givenOtherInstanceReservedLater_whenReleased_thenIndicesStayReserved() {
+        var statusListId = createStatusList(1000);
+        var first = statusListIndexService(100, false);
+        var second = statusListIndexService(100, false);
+
+        assertEquals(0, first.allocateIndex(statusListId));
+        assertEquals(100, second.allocateIndex(statusListId));
+        first.releaseReservedIndices();
+
+        assertEquals(200, nextFreeIndex(statusListId));
+        second.releaseReservedIndices();
+        assertEquals(101, nextFreeIndex(statusListId));
+    }
+
+    private StatusListIndexService statusListIndexService(int blockSize, boolean shuffled) {
+        var properties = new StatusListIndexProperties();
+        properties.setBlockSize(blockSize);
+        properties.setShuffled(shuffled);
+        return new StatusListIndexService(statusListRepository, properties, secureRandomProvider, transactionManager);
+    }
+
+    private UUID createStatusList(int maxLength) {
+        var id = UUID.randomUUID();
+        var statusList = new StatusList(id, StatusListType.TOKEN_STATUS_LIST, Map.of("bits", 2),
+                "https://localhost:8080/status/" + id, "eNo76fITAAPfAgc", 0, maxLength, Collections.emptySet());
+        return statusListRepository.saveAndFlush(statusList).getId();
+    }
+
+    private int nextFreeIndex(UUID statusListId) {
+        return statusListRepository.findNextFreeIndex(statusListId).orElseThrow();
+    }
+}
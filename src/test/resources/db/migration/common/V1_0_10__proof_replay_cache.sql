@@ -0,0 +1,15 @@
+/*
+ * SPDX-FileCopyrightText: 2025 Swiss Confederation
+ *
+ * SPDX-License-Identifier: MIT
+ */
+
+-- Same as scripts/proof_replay_cache.sql, which has to be applied by the issuer agent management
+CREATE TABLE proof_replay_cache
+(
+    replay_key VARCHAR(64) NOT NULL,
+    expires_at BIGINT      NOT NULL,
+    PRIMARY KEY (replay_key)
+);
+
+CREATE INDEX proof_replay_cache_expires_at_idx ON proof_replay_cache (expires_at);